@@ -0,0 +1,35 @@
+package com.md.chatapp.api_gateway.proxy;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Responses the gateway produces itself. Bodies use auth-service's
+ * {@code ApiResponse} shape and are encoded once.
+ */
+enum GatewayErrors {
+
+    UNAUTHORIZED(HttpStatus.UNAUTHORIZED, "Authentication required"),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS, "Too many requests. Please slow down."),
+    BAD_GATEWAY(HttpStatus.BAD_GATEWAY, "Upstream service is unavailable"),
+    GATEWAY_TIMEOUT(HttpStatus.GATEWAY_TIMEOUT, "Upstream service timed out");
+
+    private final HttpStatus status;
+    private final byte[] body;
+
+    GatewayErrors(HttpStatus status, String message) {
+        this.status = status;
+        this.body = ("{\"success\":false,\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    void write(HttpServletResponse response) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,96 @@
+package com.md.chatapp.api_gateway.proxy;
+
+import com.md.chatapp.api_gateway.ratelimit.UserRateLimiter;
+import com.md.chatapp.api_gateway.security.IdentityHeader;
+import com.md.chatapp.api_gateway.security.TokenAuthenticator;
+import com.md.chatapp.api_gateway.security.VerifiedIdentity;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The gateway itself. For every routed path: verify the bearer token once,
+ * rate-limit the caller, and relay the request with a signed identity header
+ * in place of the token. Paths with no route (actuator) fall through to the
+ * normal dispatcher.
+ *
+ * Anonymous callers (public paths such as login) are limited per client
+ * address. By default that is the TCP peer, which is only right when the
+ * gateway is the TLS edge. Behind a load balancer, set
+ * {@code server.forward-headers-strategy=native} so Tomcat takes the address
+ * from {@code X-Forwarded-For} as appended by proxies matching
+ * {@code server.tomcat.remoteip.internal-proxies}; otherwise every client
+ * shares the balancer's bucket.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class GatewayFilter extends OncePerRequestFilter {
+
+    private final RouteTable routes;
+    private final TokenAuthenticator authenticator;
+    private final IdentityHeader identityHeader;
+    private final UserRateLimiter rateLimiter;
+    private final ProxyForwarder forwarder;
+
+    public GatewayFilter(RouteTable routes, TokenAuthenticator authenticator, IdentityHeader identityHeader,
+                         UserRateLimiter rateLimiter, ProxyForwarder forwarder) {
+        this.routes = routes;
+        this.authenticator = authenticator;
+        this.identityHeader = identityHeader;
+        this.rateLimiter = rateLimiter;
+        this.forwarder = forwarder;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI();
+        RouteTable.Route route = routes.match(path);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String token = bearerToken(request);
+        VerifiedIdentity identity = token != null ? authenticator.authenticate(token) : null;
+        if (identity == null && !routes.isPublic(path)) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            GatewayErrors.UNAUTHORIZED.write(response);
+            return;
+        }
+
+        // Behind trusted proxies the remote address has already been resolved from X-Forwarded-For
+        String callerKey = identity != null ? "u:" + identity.userId() : "ip:" + request.getRemoteAddr();
+        long waitNanos = rateLimiter.tryAcquire(callerKey);
+        if (waitNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            GatewayErrors.RATE_LIMITED.write(response);
+            return;
+        }
+
+        String signedIdentity = identity != null
+                ? identityHeader.sign(identity, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()))
+                : null;
+        forwarder.forward(request, response, route.upstream(), signedIdentity);
+    }
+
+    private static String bearerToken(HttpServletRequest request) {
+        String headerAuth = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.md.chatapp.api_gateway.proxy;
+
+import com.md.chatapp.api_gateway.security.IdentityHeader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays one request to its upstream over a shared keep-alive HTTP client.
+ * The client's Authorization header and any identity header it tried to
+ * supply are dropped; the gateway's own signed identity is added instead.
+ */
+@Component
+public class ProxyForwarder {
+
+    // Hop-by-hop headers, headers the JDK client sets itself, and credentials that must not reach upstreams
+    private static final Set<String> SKIPPED_REQUEST_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer",
+            "transfer-encoding", "upgrade", "host", "content-length", "expect",
+            "authorization", IdentityHeader.NAME.toLowerCase(Locale.ROOT),
+            "x-forwarded-for", "x-forwarded-proto", "x-forwarded-host");
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer",
+            "transfer-encoding", "upgrade", "content-length");
+
+    private final HttpClient client;
+    private final Duration timeout;
+    private final Timer upstreamLatency;
+
+    public ProxyForwarder(@Value("${app.gateway.upstream.connect-timeout-ms:2000}") long connectTimeoutMs,
+                          @Value("${app.gateway.upstream.timeout-ms:15000}") long timeoutMs,
+                          MeterRegistry meterRegistry) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.upstreamLatency = Timer.builder("gateway.upstream.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public void forward(HttpServletRequest request, HttpServletResponse response,
+                        URI upstream, String identity) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target(upstream, request))
+                .timeout(timeout)
+                .method(request.getMethod(), body(request));
+        copyRequestHeaders(request, builder);
+        if (identity != null) {
+            builder.header(IdentityHeader.NAME, identity);
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        builder.header("X-Forwarded-For", forwardedFor == null
+                ? request.getRemoteAddr() : forwardedFor + ", " + request.getRemoteAddr());
+        builder.header("X-Forwarded-Proto", request.getScheme());
+        String host = request.getHeader(HttpHeaders.HOST);
+        if (host != null) {
+            builder.header("X-Forwarded-Host", host);
+        }
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> upstreamResponse;
+        try {
+            upstreamResponse = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (HttpConnectTimeoutException e) {
+            GatewayErrors.BAD_GATEWAY.write(response);
+            return;
+        } catch (HttpTimeoutException e) {
+            GatewayErrors.GATEWAY_TIMEOUT.write(response);
+            return;
+        } catch (IOException e) {
+            // Connection refused or reset
+            GatewayErrors.BAD_GATEWAY.write(response);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            GatewayErrors.BAD_GATEWAY.write(response);
+            return;
+        }
+
+        response.setStatus(upstreamResponse.statusCode());
+        for (Map.Entry<String, List<String>> header : upstreamResponse.headers().map().entrySet()) {
+            if (SKIPPED_RESPONSE_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                response.addHeader(header.getKey(), value);
+            }
+        }
+        upstreamResponse.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).ifPresent(response::setContentLengthLong);
+        try (InputStream body = upstreamResponse.body()) {
+            body.transferTo(response.getOutputStream());
+        }
+        upstreamLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static URI target(URI upstream, HttpServletRequest request) {
+        String query = request.getQueryString();
+        return URI.create(upstream + request.getRequestURI() + (query == null ? "" : "?" + query));
+    }
+
+    // API bodies are small JSON documents; buffering lets the client send a Content-Length
+    private static HttpRequest.BodyPublisher body(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() == 0
+                || (request.getContentLengthLong() < 0 && request.getHeader("Transfer-Encoding") == null)) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return HttpRequest.BodyPublishers.ofByteArray(request.getInputStream().readAllBytes());
+    }
+
+    private static void copyRequestHeaders(HttpServletRequest request, HttpRequest.Builder builder) {
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            if (SKIPPED_REQUEST_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            Enumeration<String> values = request.getHeaders(name);
+            while (values.hasMoreElements()) {
+                builder.header(name, values.nextElement());
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.md.chatapp.api_gateway.proxy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Path-prefix routing, read from {@code app.gateway.routes} as
+ * {@code prefix=baseUri} pairs. The longest matching prefix wins. Paths under
+ * {@code app.gateway.public-paths} don't need a token.
+ */
+@Component
+public class RouteTable {
+
+    public record Route(String prefix, URI upstream) {
+    }
+
+    private final List<Route> routes = new ArrayList<>();
+    private final List<String> publicPaths;
+
+    public RouteTable(@Value("${app.gateway.routes}") String routes,
+                      @Value("${app.gateway.public-paths:/api/auth/}") String publicPaths) {
+        this.publicPaths = Arrays.stream(publicPaths.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .toList();
+        for (String entry : routes.split(",")) {
+            if (!StringUtils.hasText(entry)) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Route must be prefix=uri: " + entry);
+            }
+            String prefix = entry.substring(0, eq).trim();
+            String upstream = entry.substring(eq + 1).trim();
+            this.routes.add(new Route(prefix, URI.create(upstream.endsWith("/")
+                    ? upstream.substring(0, upstream.length() - 1) : upstream)));
+        }
+        this.routes.sort(Comparator.comparingInt((Route route) -> route.prefix().length()).reversed());
+    }
+
+    /**
+     * @return the route for this path, or null if the gateway doesn't serve it
+     */
+    public Route match(String path) {
+        for (Route route : routes) {
+            if (path.startsWith(route.prefix())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    public boolean isPublic(String path) {
+        for (String publicPath : publicPaths) {
+            if (path.startsWith(publicPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
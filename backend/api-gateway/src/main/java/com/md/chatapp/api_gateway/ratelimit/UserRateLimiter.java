@@ -0,0 +1,85 @@
+package com.md.chatapp.api_gateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per caller: authenticated requests are keyed by user id,
+ * anonymous ones (login, register) by client address. Buckets are created on
+ * first use and swept once they have refilled and sat idle, so the map only
+ * holds recently active callers.
+ */
+@Component
+public class UserRateLimiter {
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final double tokensPerNano;
+    private final int burst;
+    private final Counter limited;
+
+    public UserRateLimiter(@Value("${app.gateway.rate-limit.per-second:20}") double perSecond,
+                           @Value("${app.gateway.rate-limit.burst:40}") int burst,
+                           MeterRegistry meterRegistry) {
+        this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.limited = meterRegistry.counter("gateway.rate.limited");
+        meterRegistry.gauge("gateway.rate.buckets", buckets, ConcurrentHashMap::size);
+    }
+
+    /**
+     * @return 0 if the request may proceed, otherwise how many nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        long waitNanos = buckets.computeIfAbsent(key, k -> new TokenBucket(burst, now)).tryTake(now, tokensPerNano, burst);
+        if (waitNanos > 0) {
+            limited.increment();
+        }
+        return waitNanos;
+    }
+
+    public int trackedCallers() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.gateway.rate-limit.sweep-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now, tokensPerNano, burst));
+    }
+
+    static final class TokenBucket {
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int burst, long now) {
+            this.tokens = burst;
+            this.lastRefill = now;
+        }
+
+        synchronized long tryTake(long now, double tokensPerNano, int burst) {
+            refill(now, tokensPerNano, burst);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        synchronized boolean isFull(long now, double tokensPerNano, int burst) {
+            refill(now, tokensPerNano, burst);
+            return tokens >= burst;
+        }
+
+        private void refill(long now, double tokensPerNano, int burst) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
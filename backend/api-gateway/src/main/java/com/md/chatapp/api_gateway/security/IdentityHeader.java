@@ -0,0 +1,101 @@
+package com.md.chatapp.api_gateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * The identity the gateway hands to upstream services in place of the bearer
+ * token, as one header:
+ * <pre>
+ *   X-Auth-Identity: &lt;userId&gt;.&lt;roleMask&gt;.&lt;issuedAtSeconds&gt;.&lt;base64url(username)&gt;.&lt;base64url(HMAC-SHA256)&gt;
+ * </pre>
+ * Upstreams check one HMAC over a short string and a freshness window instead
+ * of parsing and verifying a JWT. The key ({@code app.gateway.identity-secret})
+ * is separate from the JWT secret, so upstreams never hold a key that can mint
+ * user tokens.
+ */
+@Component
+public class IdentityHeader {
+
+    public static final String NAME = "X-Auth-Identity";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Initialised once and cloned per use: Mac isn't thread-safe, and a ThreadLocal would
+    // re-initialise for every virtual thread
+    private final Mac prototype;
+
+    public IdentityHeader(@Value("${app.gateway.identity-secret}") String identitySecret) {
+        byte[] secret = Base64.getDecoder().decode(identitySecret);
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("app.gateway.identity-secret must be at least 256 bits");
+        }
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            prototype.init(new SecretKeySpec(secret, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    public String sign(VerifiedIdentity identity, long nowSeconds) {
+        String payload = identity.userId() + "." + identity.roleMask() + "." + nowSeconds + "."
+                + ENCODER.encodeToString(identity.username().getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    /**
+     * Reference check for upstream services.
+     *
+     * @return the identity (with expiry set to the end of the freshness window), or null if
+     *         the header is malformed, tampered with or older than {@code maxAgeSeconds}
+     */
+    public VerifiedIdentity verify(String header, long nowSeconds, long maxAgeSeconds) {
+        int signatureStart = header.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return null;
+        }
+        String payload = header.substring(0, signatureStart);
+        byte[] signature;
+        try {
+            signature = DECODER.decode(header.substring(signatureStart + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(mac(payload), signature)) {
+            return null;
+        }
+        String[] parts = payload.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            long issuedAt = Long.parseLong(parts[2]);
+            if (Math.abs(nowSeconds - issuedAt) > maxAgeSeconds) {
+                return null;
+            }
+            return new VerifiedIdentity(Long.parseLong(parts[0]),
+                    new String(DECODER.decode(parts[3]), StandardCharsets.UTF_8),
+                    Integer.parseInt(parts[1]), (issuedAt + maxAgeSeconds) * 1000);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] mac(String payload) {
+        try {
+            return ((Mac) prototype.clone()).doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.md.chatapp.api_gateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies access tokens issued by auth-service's {@code JwtUtils}, signed with
+ * the shared {@code app.jwt.secret}. Both token profiles are accepted: standard
+ * (username subject, user id in {@code uid}, role names in {@code roles}) and
+ * compact (user id subject, username in {@code u}, role mask in {@code r}).
+ */
+@Component
+public class JwtVerifier {
+
+    // Mask bit per role: the explicit, never-reused bits declared on auth-service's Role constants
+    private static final Map<String, Integer> ROLE_BITS = Map.of(
+            "ROLE_USER", 1 << 0,
+            "ROLE_ADMIN", 1 << 1);
+
+    private final JwtParser parser;
+
+    public JwtVerifier(@Value("${app.jwt.secret}") String jwtSecret) {
+        // Built once; the parser is immutable and thread-safe
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+    }
+
+    /**
+     * @throws JwtException if the token is malformed, expired, badly signed or carries no user id
+     */
+    public VerifiedIdentity verify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            throw new JwtException("Token has no expiry");
+        }
+        String compactUsername = claims.get("u", String.class);
+        if (compactUsername != null) {
+            Integer roleMask = claims.get("r", Integer.class);
+            try {
+                return new VerifiedIdentity(Long.parseLong(claims.getSubject()), compactUsername,
+                        roleMask == null ? 0 : roleMask, expiration.getTime());
+            } catch (NumberFormatException e) {
+                throw new JwtException("Compact token subject is not a user id");
+            }
+        }
+        Number userId = claims.get("uid", Number.class);
+        if (userId == null) {
+            throw new JwtException("Token has no uid claim");
+        }
+        return new VerifiedIdentity(userId.longValue(), claims.getSubject(), roleMaskOf(claims), expiration.getTime());
+    }
+
+    private static int roleMaskOf(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        if (roles == null) {
+            return -1;
+        }
+        int mask = 0;
+        for (Object role : roles) {
+            Integer bit = ROLE_BITS.get(String.valueOf(role));
+            if (bit == null) {
+                return -1;
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,54 @@
+package com.md.chatapp.api_gateway.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies bearer tokens once at the edge, consulting {@link VerifiedTokenCache}
+ * before doing any cryptography.
+ */
+@Component
+public class TokenAuthenticator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenAuthenticator.class);
+
+    private final JwtVerifier jwtVerifier;
+    private final VerifiedTokenCache cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejected;
+
+    public TokenAuthenticator(JwtVerifier jwtVerifier, VerifiedTokenCache cache, MeterRegistry meterRegistry) {
+        this.jwtVerifier = jwtVerifier;
+        this.cache = cache;
+        this.hits = meterRegistry.counter("gateway.token.cache", "result", "hit");
+        this.misses = meterRegistry.counter("gateway.token.cache", "result", "miss");
+        this.rejected = meterRegistry.counter("gateway.token.rejected");
+        meterRegistry.gauge("gateway.token.cache.size", cache, VerifiedTokenCache::size);
+    }
+
+    /**
+     * @return the token's identity, or null if it is invalid or expired
+     */
+    public VerifiedIdentity authenticate(String token) {
+        VerifiedIdentity identity = cache.get(token, System.currentTimeMillis());
+        if (identity != null) {
+            hits.increment();
+            return identity;
+        }
+        misses.increment();
+        try {
+            identity = jwtVerifier.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected token at the edge: {}", e.getMessage());
+            rejected.increment();
+            return null;
+        }
+        cache.put(token, identity);
+        return identity;
+    }
+}
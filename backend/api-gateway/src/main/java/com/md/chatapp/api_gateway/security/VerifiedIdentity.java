@@ -0,0 +1,9 @@
+package com.md.chatapp.api_gateway.security;
+
+/**
+ * Identity taken from a verified access token. {@code roleMask} uses
+ * auth-service's {@code Role} bit layout and is -1 when the token's roles
+ * couldn't be mapped; {@code expiresAtMillis} bounds how long it may be cached.
+ */
+public record VerifiedIdentity(long userId, String username, int roleMask, long expiresAtMillis) {
+}
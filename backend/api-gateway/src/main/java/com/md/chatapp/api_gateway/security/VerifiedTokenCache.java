@@ -0,0 +1,80 @@
+package com.md.chatapp.api_gateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of tokens that already passed signature verification, so a
+ * client sending the same bearer token on every call pays for one HMAC check
+ * and one JSON parse per token rather than per request. Split into
+ * independently locked LRU stripes to keep lock hold times short under
+ * concurrency. Entries never outlive the token's own expiry; invalid tokens
+ * are never cached, so garbage can't push out real entries.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public VerifiedTokenCache(@Value("${app.gateway.token-cache.size:100000}") int maxEntries) {
+        // Power of two so the stripe is picked with a mask
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxEntries / stripeCount));
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    public VerifiedIdentity get(String token, long nowMillis) {
+        Stripe stripe = stripeFor(token);
+        synchronized (stripe) {
+            VerifiedIdentity identity = stripe.get(token);
+            if (identity != null && identity.expiresAtMillis() <= nowMillis) {
+                stripe.remove(token);
+                return null;
+            }
+            return identity;
+        }
+    }
+
+    public void put(String token, VerifiedIdentity identity) {
+        Stripe stripe = stripeFor(token);
+        synchronized (stripe) {
+            stripe.put(token, identity);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String token) {
+        int h = token.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, VerifiedIdentity> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedIdentity> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.md.chatapp.api_gateway.proxy;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static com.md.chatapp.api_gateway.proxy.GatewayRateLimitTest.BURST;
+import static com.md.chatapp.api_gateway.proxy.GatewayRateLimitTest.login;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Anonymous rate limiting behind a load balancer: with forwarded headers
+ * enabled, the loopback test client counts as a trusted proxy and each
+ * forwarded client address gets its own bucket.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "app.jwt.secret=" + GatewayOverheadTest.SECRET,
+                "app.gateway.identity-secret=" + GatewayOverheadTest.IDENTITY_SECRET,
+                "app.gateway.rate-limit.per-second=0.001",
+                "app.gateway.rate-limit.burst=" + BURST,
+                "server.forward-headers-strategy=native"
+        })
+class GatewayForwardedAddressTest {
+
+    private static final WebServer upstream = GatewayRateLimitTest.startUpstream();
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("app.gateway.routes", () -> "/api/=http://127.0.0.1:" + upstream.getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void limitsEachForwardedClientSeparately() throws Exception {
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(200, login(port, "203.0.113.7").statusCode());
+        }
+        assertEquals(429, login(port, "203.0.113.7").statusCode());
+        // The proxy appends the address it saw; anything the client put in front is not trusted
+        assertEquals(429, login(port, "198.51.100.1, 203.0.113.7").statusCode());
+
+        assertEquals(200, login(port, "203.0.113.8").statusCode());
+    }
+}
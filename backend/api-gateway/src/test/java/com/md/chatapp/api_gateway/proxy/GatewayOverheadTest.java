@@ -0,0 +1,273 @@
+package com.md.chatapp.api_gateway.proxy;
+
+import com.md.chatapp.api_gateway.security.IdentityHeader;
+import com.md.chatapp.api_gateway.security.JwtVerifier;
+import com.md.chatapp.api_gateway.security.VerifiedIdentity;
+import com.md.chatapp.api_gateway.security.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the gateway in front of a local stub upstream and checks what reaches
+ * the upstream. The overhead report, the per-request latency the gateway adds
+ * over calling the stub directly, is skipped unless the request count is
+ * given, e.g. {@code -Dgateway.benchmark.requests=200000}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "app.jwt.secret=" + GatewayOverheadTest.SECRET,
+                "app.gateway.identity-secret=" + GatewayOverheadTest.IDENTITY_SECRET,
+                "app.gateway.rate-limit.per-second=50",
+                "app.gateway.rate-limit.burst=100"
+        })
+class GatewayOverheadTest {
+
+    static final String SECRET = "Z2F0ZXdheS10ZXN0LXNlY3JldC10aGF0LWlzLWRlZmluaXRlbHktbG9uZy1lbm91Z2gtZm9yLWhzNTEyLXNpZ25pbmctMTIzNDU2Nzg5MA==";
+    static final String IDENTITY_SECRET = "aWRlbnRpdHktaGVhZGVyLXRlc3Qta2V5LTMyLWJ5dGVzLW1pbg==";
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    private static final byte[] STUB_BODY = "{\"id\":42,\"username\":\"stub\",\"online\":true}".getBytes(StandardCharsets.UTF_8);
+    private static final AtomicReference<HttpHeaders> lastUpstreamHeaders = new AtomicReference<>();
+    private static final WebServer upstream = startUpstream();
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("app.gateway.routes", () -> "/api/=http://127.0.0.1:" + upstream.getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private IdentityHeader identityHeader;
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void replacesBearerTokenWithSignedIdentity() throws Exception {
+        String token = compactToken(7, "alice", 0b11);
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(gateway("/api/users/search?q=al"))
+                .header("Authorization", "Bearer " + token)
+                .header(IdentityHeader.NAME, "1.2.3.forged.sig")
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(new String(STUB_BODY, StandardCharsets.UTF_8), response.body());
+        HttpHeaders seen = lastUpstreamHeaders.get();
+        assertNull(seen.getFirst("Authorization"), "bearer token must not reach upstreams");
+        List<String> identities = seen.getOrEmpty(IdentityHeader.NAME);
+        assertEquals(1, identities.size(), "client-supplied identity must be dropped");
+        VerifiedIdentity identity = identityHeader.verify(identities.get(0), nowSeconds(), 30);
+        assertNotNull(identity);
+        assertEquals(7, identity.userId());
+        assertEquals("alice", identity.username());
+        assertEquals(0b11, identity.roleMask());
+
+        // Standard-profile tokens are mapped onto the same identity
+        String standard = Jwts.builder().subject("bob").claim("uid", 8).claim("roles", List.of("ROLE_USER"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(KEY, Jwts.SIG.HS512).compact();
+        client.send(HttpRequest.newBuilder(gateway("/api/presence")).header("Authorization", "Bearer " + standard).build(),
+                HttpResponse.BodyHandlers.discarding());
+        VerifiedIdentity bob = identityHeader.verify(lastUpstreamHeaders.get().getFirst(IdentityHeader.NAME), nowSeconds(), 30);
+        assertEquals(8, bob.userId());
+        assertEquals(1, bob.roleMask());
+
+        // A tampered header fails verification
+        String tampered = identities.get(0).replaceFirst("^7\\.", "8.");
+        assertNull(identityHeader.verify(tampered, nowSeconds(), 30));
+    }
+
+    @Test
+    void rejectsAtTheEdgeWithoutAValidToken() throws Exception {
+        assertEquals(401, client.send(HttpRequest.newBuilder(gateway("/api/users/me")).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+        String badSignature = Jwts.builder().subject("9").claim("u", "mallory").claim("r", 2)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(new byte[64]), Jwts.SIG.HS512).compact();
+        assertEquals(401, client.send(HttpRequest.newBuilder(gateway("/api/admin/users/export"))
+                .header("Authorization", "Bearer " + badSignature).build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+
+        // Public paths are forwarded anonymously
+        HttpResponse<Void> login = client.send(HttpRequest.newBuilder(gateway("/api/auth/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"a\",\"password\":\"b\"}"))
+                .header("Content-Type", "application/json").build(), HttpResponse.BodyHandlers.discarding());
+        assertEquals(200, login.statusCode());
+        assertNull(lastUpstreamHeaders.get().getFirst(IdentityHeader.NAME));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "gateway.benchmark.requests", matches = "\\d+")
+    void reportsGatewayOverhead() throws Exception {
+        int requests = Integer.getInteger("gateway.benchmark.requests");
+        int users = 1000;
+        String[] tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = compactToken(1_000 + i, "user" + i, 1);
+        }
+
+        // Verification cost on its own: full JWT check versus a cache hit
+        int verifyRounds = 20_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < verifyRounds; i++) {
+            jwtVerifier.verify(tokens[i % users]);
+        }
+        long verifyNanos = (System.nanoTime() - start) / verifyRounds;
+        start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < verifyRounds; i++) {
+            tokenCache.get(tokens[i % users], now);
+        }
+        long cacheNanos = (System.nanoTime() - start) / verifyRounds;
+
+        URI direct = URI.create("http://127.0.0.1:" + upstream.getPort() + "/api/presence");
+        URI viaGateway = gateway("/api/presence");
+        // Warm both paths (JIT, connections, token cache)
+        measure(direct, tokens, 5_000);
+        measure(viaGateway, tokens, 5_000);
+
+        long[] directLatency = measure(direct, tokens, requests);
+        long[] gatewayLatency = measure(viaGateway, tokens, requests);
+        Arrays.sort(directLatency);
+        Arrays.sort(gatewayLatency);
+
+        int threads = 16;
+        double directThroughput = throughput(direct, tokens, threads, requests);
+        double gatewayThroughput = throughput(viaGateway, tokens, threads, requests);
+
+        System.out.printf("JWT verify %d ns, cache hit %d ns%n", verifyNanos, cacheNanos);
+        System.out.printf("Sequential, %d requests: direct p50 %d us p99 %d us; via gateway p50 %d us p99 %d us; overhead p50 %d us%n",
+                requests, micros(directLatency, 0.5), micros(directLatency, 0.99),
+                micros(gatewayLatency, 0.5), micros(gatewayLatency, 0.99),
+                micros(gatewayLatency, 0.5) - micros(directLatency, 0.5));
+        System.out.printf("%d client threads: direct %.0f req/s, via gateway %.0f req/s%n",
+                threads, directThroughput, gatewayThroughput);
+
+        assertTrue(cacheNanos < verifyNanos, "a cache hit should be cheaper than verifying");
+    }
+
+    private long[] measure(URI uri, String[] tokens, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + tokens[i % tokens.length]).build();
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            latencies[i] = System.nanoTime() - start;
+            assertEquals(200, response.statusCode());
+        }
+        return latencies;
+    }
+
+    private double throughput(URI uri, String[] tokens, int threads, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int perThread = requests / threads;
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    HttpClient threadClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                    for (int i = 0; i < perThread; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Authorization", "Bearer " + tokens[(offset + i * threads) % tokens.length]).build();
+                        HttpResponse<byte[]> response = threadClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        assertEquals(200, response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return perThread * threads / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private URI gateway(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    private static String compactToken(long userId, String username, int roleMask) {
+        return Jwts.builder().subject(Long.toString(userId)).claim("u", username).claim("r", roleMask)
+                .issuedAt(new Date()).expiration(new Date(System.currentTimeMillis() + 600_000))
+                .signWith(KEY, Jwts.SIG.HS512).compact();
+    }
+
+    private static long micros(long[] sorted, double quantile) {
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))]);
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    // A second embedded Tomcat standing in for auth-service: records headers and returns a small JSON body
+    private static WebServer startUpstream() {
+        HttpServlet stub = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                HttpHeaders headers = new HttpHeaders();
+                for (String name : Collections.list(request.getHeaderNames())) {
+                    headers.put(name, Collections.list(request.getHeaders(name)));
+                }
+                lastUpstreamHeaders.set(headers);
+                request.getInputStream().readAllBytes();
+                response.setContentType("application/json");
+                response.setContentLength(STUB_BODY.length);
+                response.getOutputStream().write(STUB_BODY);
+            }
+        };
+        WebServer server = new TomcatServletWebServerFactory(0)
+                .getWebServer(context -> context.addServlet("stub", stub).addMapping("/"));
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,124 @@
+package com.md.chatapp.api_gateway.proxy;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-user and per-address rate limiting through the running gateway. The
+ * refill rate is close enough to zero that no token comes back during the
+ * test, so the outcome does not depend on how fast the requests are sent.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "app.jwt.secret=" + GatewayOverheadTest.SECRET,
+                "app.gateway.identity-secret=" + GatewayOverheadTest.IDENTITY_SECRET,
+                "app.gateway.rate-limit.per-second=0.001",
+                "app.gateway.rate-limit.burst=" + GatewayRateLimitTest.BURST
+        })
+class GatewayRateLimitTest {
+
+    static final int BURST = 5;
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(GatewayOverheadTest.SECRET));
+    private static final WebServer upstream = startUpstream();
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        registry.add("app.gateway.routes", () -> "/api/=http://127.0.0.1:" + upstream.getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void rateLimitsPerUser() throws Exception {
+        String token = compactToken(5_000_001, "chatty");
+        String other = compactToken(5_000_002, "quiet");
+        int limited = 0;
+        String retryAfter = null;
+        for (int i = 0; i < BURST + 1; i++) {
+            HttpResponse<Void> response = send(token);
+            if (response.statusCode() == 429) {
+                limited++;
+                retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+            } else {
+                assertEquals(200, response.statusCode());
+            }
+        }
+        assertEquals(1, limited, "only the request beyond the bucket size should be limited");
+        assertNotNull(retryAfter);
+        // Another user's bucket is untouched
+        assertEquals(200, send(other).statusCode());
+    }
+
+    @Test
+    void anonymousLoginsAreLimitedPerAddressWhateverTheyForward() throws Exception {
+        // Without forwarded-header support a client cannot pick its own bucket
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(200, login(port, "203.0.113." + i).statusCode());
+        }
+        assertEquals(429, login(port, "203.0.113.99").statusCode());
+    }
+
+    static HttpResponse<Void> login(int port, String forwardedFor) throws Exception {
+        return HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build().send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/auth/login"))
+                        .header("X-Forwarded-For", forwardedFor)
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"a\",\"password\":\"b\"}"))
+                        .header("Content-Type", "application/json").build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpResponse<Void> send(String token) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/presence"))
+                .header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String compactToken(long userId, String username) {
+        return Jwts.builder().subject(Long.toString(userId)).claim("u", username).claim("r", 1)
+                .issuedAt(new Date()).expiration(new Date(System.currentTimeMillis() + 600_000))
+                .signWith(KEY, Jwts.SIG.HS512).compact();
+    }
+
+    static WebServer startUpstream() {
+        HttpServlet stub = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setStatus(200);
+            }
+        };
+        WebServer server = new TomcatServletWebServerFactory(0)
+                .getWebServer(context -> context.addServlet("stub", stub).addMapping("/"));
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,28 @@
+package com.md.chatapp.auth_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Dedicated pool for the admin user export, so concurrent exports are bounded
+ * without touching the MVC-wide async executor. Not a default candidate: it is
+ * only injected by name, and Boot's {@code applicationTaskExecutor} still gets
+ * created for everything else. Shut down with the context like any other bean.
+ */
+@Configuration
+public class AsyncExportConfig {
+
+    public static final String EXPORT_EXECUTOR = "userExportExecutor";
+
+    @Bean(name = EXPORT_EXECUTOR, defaultCandidate = false)
+    public ThreadPoolTaskExecutor userExportExecutor(@Value("${app.export.max-concurrent:2}") int maxConcurrentExports) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("export-");
+        executor.setCorePoolSize(maxConcurrentExports);
+        executor.setMaxPoolSize(maxConcurrentExports);
+        executor.setQueueCapacity(4 * maxConcurrentExports);
+        return executor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.md.chatapp.auth_service.config;
+
+import com.md.chatapp.auth_service.security.PermissionAuthorizationManager;
+import com.md.chatapp.auth_service.security.RequiresPermission;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+
+/**
+ * Registers the {@link RequiresPermission} interceptor next to the built-in
+ * {@code @PreAuthorize} one enabled in {@link SecurityConfig}.
+ */
+@Configuration
+public class PermissionSecurityConfig {
+
+    @Bean
+    @org.springframework.context.annotation.Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresPermissionAuthorizationAdvisor() {
+        Pointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(null, RequiresPermission.class, true))
+                .union(new AnnotationMatchingPointcut(RequiresPermission.class, true));
+        AuthorizationManagerBeforeMethodInterceptor interceptor =
+                new AuthorizationManagerBeforeMethodInterceptor(pointcut, new PermissionAuthorizationManager());
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+}
@@ -0,0 +1,64 @@
+package com.md.chatapp.auth_service.config;
+
+import com.md.chatapp.auth_service.model.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * One-off data migration from the legacy user_roles join table to the
+ * app_users.role_mask column. Hibernate (ddl-auto) adds the column with a
+ * default of 0; this folds the old rows into it for any user still at 0.
+ *
+ * Runs once every singleton (and so the schema update) is ready, but before
+ * the web server starts listening, so no request ever sees a legacy user with
+ * an empty mask. Afterwards the legacy table is renamed to
+ * {@code user_roles_migrated}: its rows are kept, and later startups find
+ * nothing to do.
+ */
+@Component
+public class RoleMaskMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleMaskMigration.class);
+
+    private static final String LEGACY_TABLE = "user_roles";
+    private static final String MIGRATED_TABLE = "user_roles_migrated";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RoleMaskMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void afterSingletonsInstantiated() {
+        Integer legacyTables = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where lower(table_name) = ?",
+                Integer.class, LEGACY_TABLE);
+        if (legacyTables == null || legacyTables == 0) {
+            return;
+        }
+
+        int migrated = jdbcTemplate.update(
+                "update app_users set role_mask = ("
+                        + " select coalesce(sum(distinct " + roleToMaskCase() + "), 0)"
+                        + " from " + LEGACY_TABLE + " r where r.user_id = app_users.id)"
+                        + " where role_mask = 0");
+        jdbcTemplate.execute("alter table " + LEGACY_TABLE + " rename to " + MIGRATED_TABLE);
+        logger.info("Migrated roles of {} users from {} to app_users.role_mask; legacy rows kept in {}",
+                migrated, LEGACY_TABLE, MIGRATED_TABLE);
+    }
+
+    // Each role maps to a distinct power of two, so summing distinct values equals OR-ing them
+    private static String roleToMaskCase() {
+        StringBuilder sql = new StringBuilder("case r.role");
+        for (Role role : Role.values()) {
+            sql.append(" when '").append(role.name()).append("' then ").append(role.mask());
+        }
+        return sql.append(" else 0 end").toString();
+    }
+}
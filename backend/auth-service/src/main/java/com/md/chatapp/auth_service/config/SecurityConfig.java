@@ -5,6 +5,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
 import java.util.List;
+import com.md.chatapp.auth_service.security.JfrPasswordEncoder;
 import com.md.chatapp.auth_service.security.jwt.AuthEntryPointJwt;
 import com.md.chatapp.auth_service.security.jwt.AuthTokenFilter;
 import com.md.chatapp.auth_service.service.UserDetailsServiceImpl; 
@@ -40,7 +41,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new JfrPasswordEncoder(new BCryptPasswordEncoder());
     }
 
     @Bean
@@ -61,7 +62,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Cache-Control", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Cache-Control", "Content-Type", "Idempotency-Key"));
         configuration.setAllowCredentials(true); // Allow cookies/credentials if needed (often true)
         configuration.setMaxAge(3600L); // Cache preflight response for 1 hour
 
@@ -81,7 +82,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll() // Allow access to login/register
                         .requestMatchers("/api/test/**").permitAll() // Example: Allow test endpoints if any
                         // Add rules for other endpoints:
-                        // .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/jfr/**").hasRole("ADMIN")
                         // .requestMatchers("/api/user/**").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated() // All other requests require authentication
                 );
@@ -0,0 +1,202 @@
+package com.md.chatapp.auth_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.chatapp.auth_service.dto.JwtResponse;
+import com.md.chatapp.auth_service.dto.LoginRequest;
+import com.md.chatapp.auth_service.model.Role;
+import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
+import com.md.chatapp.auth_service.security.jwt.JwtUtils;
+import com.md.chatapp.auth_service.security.jwt.TokenClaims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exercises the request hot paths with synthetic data before the instance takes traffic:
+ * JWT signing and verification, the principal lookup and registration existence queries
+ * (which also opens pooled connections and fills Hibernate's query plan cache), Jackson
+ * (de)serialization of the auth DTOs, and a few BCrypt rounds.
+ *
+ * Runs as the last ApplicationRunner. Spring Boot only publishes ACCEPTING_TRAFFIC after
+ * all runners have returned, so readiness stays REFUSING_TRAFFIC for the duration. The
+ * warm-up gives up after {@code app.warmup.budget-ms} so a slow dependency can't hold a
+ * rollout forever; the elapsed time is logged and exported as {@code auth.warmup.duration}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final JwtUtils jwtUtils;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+    private final long budgetMs;
+    private final int iterations;
+    private final int databaseThreads;
+    private final int passwordRounds;
+
+    private volatile long durationNanos = 0;
+    private volatile boolean completed = false;
+
+    public StartupWarmup(JwtUtils jwtUtils, UserRepository userRepository, PasswordEncoder passwordEncoder,
+                         ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                         @Value("${app.warmup.enabled:true}") boolean enabled,
+                         @Value("${app.warmup.budget-ms:30000}") long budgetMs,
+                         @Value("${app.warmup.iterations:2000}") int iterations,
+                         @Value("${app.warmup.database-threads:4}") int databaseThreads,
+                         @Value("${app.warmup.password-rounds:3}") int passwordRounds) {
+        this.jwtUtils = jwtUtils;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.budgetMs = budgetMs;
+        this.iterations = iterations;
+        this.databaseThreads = databaseThreads;
+        this.passwordRounds = passwordRounds;
+
+        TimeGauge.builder("auth.warmup.duration", this, TimeUnit.NANOSECONDS, warmup -> warmup.durationNanos)
+                .description("Time spent warming up before accepting traffic")
+                .register(meterRegistry);
+        meterRegistry.gauge("auth.warmup.completed", this, warmup -> warmup.completed ? 1 : 0);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        // Explicit, in case anything flipped readiness earlier in startup
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(databaseThreads + 3, runnable -> {
+            Thread thread = new Thread(runnable, "warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<?>> stages = new ArrayList<>();
+        stages.add(executor.submit(this::warmTokens));
+        stages.add(executor.submit(this::warmJson));
+        stages.add(executor.submit(this::warmPasswords));
+        for (int i = 0; i < databaseThreads; i++) {
+            stages.add(executor.submit(this::warmDatabase));
+        }
+
+        boolean allDone = true;
+        try {
+            for (Future<?> stage : stages) {
+                long remaining = deadline - System.nanoTime();
+                try {
+                    stage.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException e) {
+                    // Keep waiting for the other stages, but don't report this run as complete
+                    allDone = false;
+                    logger.warn("Warm-up stage failed: {}", e.getCause().toString());
+                }
+            }
+        } catch (TimeoutException e) {
+            allDone = false;
+            logger.warn("Warm-up budget of {} ms expired; accepting traffic anyway", budgetMs);
+        } catch (InterruptedException e) {
+            allDone = false;
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        durationNanos = System.nanoTime() - start;
+        completed = allDone;
+        logger.info("Warm-up {} in {} ms", allDone ? "finished" : "cut short", durationNanos / 1_000_000);
+    }
+
+    private void warmTokens() {
+        UserDetailsImpl principal = new UserDetailsImpl(Long.MAX_VALUE, "warmup", "warmup@localhost", null,
+                Role.ROLE_USER.mask(), true, false, false, false);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+            TokenClaims claims = jwtUtils.parseToken(jwtUtils.generateJwtToken(authentication));
+            if (claims == null) {
+                throw new IllegalStateException("Freshly issued token failed verification");
+            }
+        }
+    }
+
+    private void warmJson() {
+        try {
+            LoginRequest login = new LoginRequest();
+            login.setUsername("warmup");
+            login.setPassword("warmup-password");
+            byte[] loginJson = objectMapper.writeValueAsBytes(login);
+            JwtResponse response = new JwtResponse("token", "Bearer", 1L, "warmup", List.of(Role.ROLE_USER.name()),
+                    "warmup@localhost");
+            for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+                objectMapper.readValue(loginJson, LoginRequest.class);
+                objectMapper.writeValueAsBytes(response);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void warmPasswords() {
+        for (int i = 0; i < passwordRounds && !Thread.currentThread().isInterrupted(); i++) {
+            String hash = passwordEncoder.encode("warmup-password-" + i);
+            passwordEncoder.matches("warmup-password-" + i, hash);
+        }
+    }
+
+    // Several threads at once, so the pool opens several connections rather than one
+    private void warmDatabase() {
+        int queries = Math.max(1, iterations / 10);
+        for (int i = 0; i < queries && !Thread.currentThread().isInterrupted(); i++) {
+            // Read-only lookups; ".invalid" is a reserved TLD, so the probes miss in practice
+            String probe = "warmup-probe-" + i + "@warmup.invalid";
+            userRepository.findPrincipalByUsernameOrEmail(probe);
+            userRepository.existsByUsername(probe);
+            userRepository.existsByEmail(probe);
+        }
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+}
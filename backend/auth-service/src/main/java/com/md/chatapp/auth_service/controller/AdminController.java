@@ -0,0 +1,62 @@
+package com.md.chatapp.auth_service.controller;
+
+import com.md.chatapp.auth_service.config.AsyncExportConfig;
+import com.md.chatapp.auth_service.dto.ApiResponse;
+import com.md.chatapp.auth_service.model.Permission;
+import com.md.chatapp.auth_service.security.RequiresPermission;
+import com.md.chatapp.auth_service.service.UserExportService;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.OutputStream;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final UserExportService userExportService;
+    private final AsyncTaskExecutor exportExecutor;
+    private final long exportTimeoutMs;
+
+    @Autowired
+    public AdminController(UserExportService userExportService,
+                           @Qualifier(AsyncExportConfig.EXPORT_EXECUTOR) AsyncTaskExecutor exportExecutor,
+                           @Value("${app.export.timeout-ms:3600000}") long exportTimeoutMs) {
+        this.userExportService = userExportService;
+        this.exportExecutor = exportExecutor;
+        this.exportTimeoutMs = exportTimeoutMs;
+    }
+
+    // Full user table as NDJSON (default) or CSV, streamed page by page on the export pool.
+    // The task writes the body itself; returning null tells MVC the response is already handled.
+    @GetMapping("/users/export")
+    @RequiresPermission(Permission.USER_EXPORT)
+    public WebAsyncTask<ResponseEntity<ApiResponse>> exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                                                                 HttpServletResponse response) {
+        UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            ResponseEntity<ApiResponse> badRequest =
+                    ResponseEntity.badRequest().body(new ApiResponse(false, "Unsupported export format: " + format));
+            return new WebAsyncTask<>(() -> badRequest);
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + exportFormat.getExtension() + "\"");
+        return new WebAsyncTask<>(exportTimeoutMs, exportExecutor, () -> {
+            OutputStream out = response.getOutputStream();
+            userExportService.export(exportFormat, out);
+            out.flush();
+            return null;
+        });
+    }
+}
@@ -1,11 +1,21 @@
 package com.md.chatapp.auth_service.controller;
 
 import com.md.chatapp.auth_service.dto.ApiResponse;
+import com.md.chatapp.auth_service.dto.AvailabilityResponse;
+import com.md.chatapp.auth_service.dto.EmailRequest;
 import com.md.chatapp.auth_service.dto.JwtResponse;
 import com.md.chatapp.auth_service.dto.LoginRequest;
+import com.md.chatapp.auth_service.dto.PasswordResetRequest;
 import com.md.chatapp.auth_service.dto.RegisterRequest;
+import com.md.chatapp.auth_service.dto.VerifyEmailRequest;
+import com.md.chatapp.auth_service.exception.ErrorCode;
+import com.md.chatapp.auth_service.exception.ErrorResponses;
 import com.md.chatapp.auth_service.security.UserDetailsImpl;
+import com.md.chatapp.auth_service.service.AccountRecoveryService;
 import com.md.chatapp.auth_service.service.AuthService;
+import com.md.chatapp.auth_service.service.LoginOutcome;
+import com.md.chatapp.auth_service.service.RegistrationOutcome;
+import com.md.chatapp.auth_service.service.UsernameAvailabilityService;
 
 import jakarta.validation.Valid;
 
@@ -14,10 +24,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication; 
-import org.springframework.security.core.AuthenticationException; 
-import org.springframework.security.core.context.SecurityContextHolder; 
-import org.springframework.security.core.userdetails.UserDetails; 
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*; 
 
 import java.util.List;
@@ -30,68 +37,117 @@ public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class); // Optional logger
 
     private final AuthService authService;
+    private final UsernameAvailabilityService availabilityService;
+    private final AccountRecoveryService accountRecovery;
+    private final ErrorResponses errorResponses;
+    private final IdempotentRequests idempotentRequests;
 
     @Autowired
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, UsernameAvailabilityService availabilityService,
+                          AccountRecoveryService accountRecovery, ErrorResponses errorResponses,
+                          IdempotentRequests idempotentRequests) {
         this.authService = authService;
+        this.availabilityService = availabilityService;
+        this.accountRecovery = accountRecovery;
+        this.errorResponses = errorResponses;
+        this.idempotentRequests = idempotentRequests;
     }
 
+    // Live "is it taken?" check for the registration form; most answers never reach the database
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+                                               @RequestParam(required = false) String email) {
+        if (!StringUtils.hasText(username) && !StringUtils.hasText(email)) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Provide a username and/or email to check."));
+        }
+        Boolean usernameAvailable = StringUtils.hasText(username) ? availabilityService.isUsernameAvailable(username) : null;
+        Boolean emailAvailable = StringUtils.hasText(email) ? availabilityService.isEmailAvailable(email) : null;
+        return ResponseEntity.ok(new AvailabilityResponse(usernameAvailable, emailAvailable));
+    }
+
+    // Clients may send an Idempotency-Key so a retried request replays the first answer instead of re-running bcrypt
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest,
+                                          @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        String fingerprint = idempotencyKey == null ? null : idempotentRequests.fingerprint(
+                registerRequest.getUsername(), registerRequest.getEmail(), registerRequest.getPassword());
+        return idempotentRequests.execute("register", idempotencyKey, fingerprint, () -> register(registerRequest));
+    }
+
+    private ResponseEntity<?> register(RegisterRequest registerRequest) {
         logger.info("Attempting registration for user: {}", registerRequest.getUsername());
-        //try {
-            authService.registerUser(registerRequest);
-            logger.info("User registered successfully: {}", registerRequest.getUsername());
-            return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully!");
-        //} catch (RuntimeException e) {
-        //    logger.error("Registration failed for user {}: {}", registerRequest.getUsername(), e.getMessage());
-        //    return ResponseEntity
-        //            .status(HttpStatus.BAD_REQUEST)
-        //            .body(e.getMessage()); 
-        //}
+        RegistrationOutcome outcome = authService.tryRegister(registerRequest);
+        if (outcome instanceof RegistrationOutcome.Rejected rejected) {
+            logger.debug("Registration rejected for {}: {}", registerRequest.getUsername(), rejected.errorCode());
+            return errorResponses.of(rejected.errorCode());
+        }
+        logger.info("User registered successfully: {}", registerRequest.getUsername());
+        return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully!");
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-       
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        String fingerprint = idempotencyKey == null ? null : idempotentRequests.fingerprint(
+                loginRequest.getUsername(), loginRequest.getPassword());
+        return idempotentRequests.execute("login", idempotencyKey, fingerprint, () -> login(loginRequest));
+    }
+
+    private ResponseEntity<?> login(LoginRequest loginRequest) {
         logger.info("Attempting login for user: {}", loginRequest.getUsername());
-        //try {
-            String jwt = authService.authenticateAndGenerateToken(loginRequest);
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            
-            if (authentication == null || !authentication.isAuthenticated()) {
-                logger.error("Authentication object not found in SecurityContext after successful token generation for {}", loginRequest.getUsername());
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "Error retrieving user details after login."));
-           }
-
-            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-            // UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            List<String> roles = userDetails.getAuthorities().stream()
-                    .map(item -> item.getAuthority())
-                    .collect(Collectors.toList());
-
-             logger.info("User login successful: {}", loginRequest.getUsername());
-
-            // Return the JWT and user details in the response body
-            return ResponseEntity.ok(new JwtResponse(
-                    jwt,
-                    "Bearer", // Standard token type
-                    userDetails.getId(), 
-                    userDetails.getUsername(),
-                    roles,
-                    userDetails.getEmail()
-            ));
-
-      //  } catch (AuthenticationException e) {
-      //       logger.error("Authentication failed for user {}: {}", loginRequest.getUsername(), e.getMessage());
-      //      return ResponseEntity
-      //              .status(HttpStatus.UNAUTHORIZED) // 401 Unauthorize
-      //              .body(new ApiResponse(false, "Login failed: Invalid credentials")); // Use the DTO 
-      //  } catch (Exception e) {
-      //       logger.error("Unexpected login error for user {}: {}", loginRequest.getUsername(), e.getMessage(), e);
-      //       return ResponseEntity
-      //               .status(HttpStatus.INTERNAL_SERVER_ERROR)
-      //               .body(new ApiResponse(false, "An internal error occurred during login."));
-      //  }
+        LoginOutcome outcome = authService.login(loginRequest);
+        if (outcome instanceof LoginOutcome.Failed failed) {
+            logger.debug("Login failed for {}: {}", loginRequest.getUsername(), failed.errorCode());
+            return errorResponses.of(failed.errorCode());
+        }
+
+        LoginOutcome.Success success = (LoginOutcome.Success) outcome;
+        UserDetailsImpl userDetails = success.principal();
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(item -> item.getAuthority())
+                .collect(Collectors.toList());
+
+        logger.info("User login successful: {}", loginRequest.getUsername());
+
+        // Return the JWT and user details in the response body
+        return ResponseEntity.ok(new JwtResponse(
+                success.jwt(),
+                "Bearer", // Standard token type
+                userDetails.getId(), 
+                userDetails.getUsername(),
+                roles,
+                userDetails.getEmail()
+        ));
+    }
+
+    @PostMapping("/verify-email")
+    public ResponseEntity<?> verifyEmail(@Valid @RequestBody VerifyEmailRequest request) {
+        if (!accountRecovery.verifyEmail(request.getToken())) {
+            return errorResponses.of(ErrorCode.INVALID_TOKEN);
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Email verified. You can now log in."));
+    }
+
+    // Always 202 so the response doesn't reveal which addresses are registered
+    @PostMapping("/verify-email/resend")
+    public ResponseEntity<?> resendVerification(@Valid @RequestBody EmailRequest request) {
+        accountRecovery.resendVerification(request.getEmail());
+        return ResponseEntity.accepted()
+                .body(new ApiResponse(true, "If that account needs verifying, a new link is on its way."));
+    }
+
+    @PostMapping("/password-reset/request")
+    public ResponseEntity<?> requestPasswordReset(@Valid @RequestBody EmailRequest request) {
+        accountRecovery.requestPasswordReset(request.getEmail());
+        return ResponseEntity.accepted()
+                .body(new ApiResponse(true, "If that email is registered, a reset link is on its way."));
+    }
+
+    @PostMapping("/password-reset/confirm")
+    public ResponseEntity<?> confirmPasswordReset(@Valid @RequestBody PasswordResetRequest request) {
+        if (!accountRecovery.confirmPasswordReset(request.getToken(), request.getNewPassword())) {
+            return errorResponses.of(ErrorCode.INVALID_TOKEN);
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Password updated. You can now log in."));
     }
-}
\ No newline at end of file
+}
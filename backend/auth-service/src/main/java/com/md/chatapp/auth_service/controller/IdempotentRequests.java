@@ -0,0 +1,214 @@
+package com.md.chatapp.auth_service.controller;
+
+import com.md.chatapp.auth_service.dto.ApiResponse;
+import com.md.chatapp.auth_service.exception.ErrorCode;
+import com.md.chatapp.auth_service.exception.ErrorResponses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for endpoints that are expensive to repeat (every
+ * login and registration pays for a bcrypt hash). The first response for a key
+ * is kept for {@code app.idempotency.ttl-ms} and replayed to retries; a retry
+ * that arrives while the first attempt is still running waits for it instead
+ * of running again. A retry storm therefore costs one hash, and a retried
+ * registration gets its original 201 instead of "Username is already taken".
+ * <p>
+ * Each key is bound to a fingerprint of the request, so reusing a key for a
+ * different request is rejected with 422 rather than answered with someone
+ * else's response. 5xx responses and exceptions aren't kept, so overload stays
+ * retryable. The store is in-memory and bounded: the oldest completed keys go
+ * first, and a key whose first attempt is still running is never evicted.
+ */
+@Component
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Insertion order is also expiry order, since every entry gets the same TTL
+    private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final ErrorResponses errorResponses;
+    private final long ttlNanos;
+    private final int maxEntries;
+    // Keyed with a per-process random secret so fingerprints of credentials can't be brute-forced
+    private final Mac fingerprintPrototype;
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter mismatched;
+
+    public IdempotentRequests(ErrorResponses errorResponses, MeterRegistry meterRegistry,
+                              @Value("${app.idempotency.ttl-ms:300000}") long ttlMs,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this.errorResponses = errorResponses;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        try {
+            this.fingerprintPrototype = Mac.getInstance(ALGORITHM);
+            fingerprintPrototype.init(new SecretKeySpec(secret, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+        this.executed = meterRegistry.counter("auth.idempotency", "result", "executed");
+        this.replayed = meterRegistry.counter("auth.idempotency", "result", "replayed");
+        this.mismatched = meterRegistry.counter("auth.idempotency", "result", "mismatched");
+        meterRegistry.gauge("auth.idempotency.entries", entries, ConcurrentHashMap::size);
+    }
+
+    /**
+     * Runs {@code action} once per {@code scope} and key, or straight away when no key was sent.
+     *
+     * @param fingerprint identifies the request the key was first used for; see {@link #fingerprint}
+     */
+    public ResponseEntity<?> execute(String scope, String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (!isValidKey(key)) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, HEADER + " must be 1-" + MAX_KEY_LENGTH + " printable characters."));
+        }
+
+        long now = System.nanoTime();
+        evictExpired(now);
+        String storeKey = scope + ':' + key;
+        Entry entry = new Entry(storeKey, fingerprint, now + ttlNanos);
+        Entry existing;
+        while ((existing = entries.putIfAbsent(storeKey, entry)) != null && existing.expiresAt - now <= 0) {
+            entries.remove(storeKey, existing);
+        }
+        if (existing == null) {
+            order.add(entry);
+            trimToSize();
+            return run(entry, action);
+        }
+
+        if (!existing.fingerprint.equals(fingerprint)) {
+            mismatched.increment();
+            return errorResponses.of(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+        replayed.increment();
+        ResponseEntity<?> original;
+        try {
+            original = existing.response.join();
+        } catch (CompletionException e) {
+            // The first attempt threw; its caller got the exception, and so does everyone who waited on it
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    /**
+     * Keyed hash of the request fields, so the store never holds credentials.
+     */
+    public String fingerprint(String... parts) {
+        Mac mac;
+        try {
+            mac = (Mac) fingerprintPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+        for (String part : parts) {
+            mac.update((part == null ? "" : part).getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+        }
+        return Base64.getEncoder().encodeToString(mac.doFinal());
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private ResponseEntity<?> run(Entry entry, Supplier<ResponseEntity<?>> action) {
+        executed.increment();
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(entry.key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            // Waiting duplicates still share this answer, but the next retry runs again
+            entries.remove(entry.key, entry);
+        }
+        entry.response.complete(response);
+        return response;
+    }
+
+    private void evictExpired(long now) {
+        Entry head;
+        while ((head = order.peek()) != null && head.expiresAt - now <= 0) {
+            if (order.remove(head)) {
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    // Oldest completed entries go first. In-flight ones are skipped: evicting one would let a
+    // duplicate run the action again, so the cap can be exceeded by the requests still running
+    private void trimToSize() {
+        Iterator<Entry> oldestFirst = order.iterator();
+        while (entries.size() > maxEntries && oldestFirst.hasNext()) {
+            Entry oldest = oldestFirst.next();
+            if (oldest.response.isDone()) {
+                oldestFirst.remove();
+                entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    private static boolean isValidKey(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < 0x21 || c > 0x7e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Entry {
+        final String key;
+        final String fingerprint;
+        final long expiresAt;
+        final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        Entry(String key, String fingerprint, long expiresAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
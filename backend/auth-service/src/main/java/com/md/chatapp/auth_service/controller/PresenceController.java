@@ -0,0 +1,48 @@
+package com.md.chatapp.auth_service.controller;
+
+import com.md.chatapp.auth_service.dto.PresenceQueryRequest;
+import com.md.chatapp.auth_service.dto.PresenceQueryResponse;
+import com.md.chatapp.auth_service.model.Permission;
+import com.md.chatapp.auth_service.security.RequiresPermission;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
+import com.md.chatapp.auth_service.service.PresenceService;
+
+import jakarta.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/presence")
+@RequiresPermission(Permission.PRESENCE_UPDATE)
+public class PresenceController {
+
+    private final PresenceService presenceService;
+
+    @Autowired
+    public PresenceController(PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @PostMapping("/heartbeat")
+    public ResponseEntity<Void> heartbeat(@AuthenticationPrincipal UserDetailsImpl user) {
+        presenceService.heartbeat(user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> goOffline(@AuthenticationPrincipal UserDetailsImpl user) {
+        presenceService.markOffline(user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Bulk "which of these contacts are online?" lookup
+    @PostMapping("/query")
+    @RequiresPermission(Permission.PRESENCE_READ)
+    public ResponseEntity<PresenceQueryResponse> queryOnline(@Valid @RequestBody PresenceQueryRequest request) {
+        long[] userIds = request.getUserIds().stream().mapToLong(Long::longValue).toArray();
+        return ResponseEntity.ok(new PresenceQueryResponse(presenceService.filterOnline(userIds)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.md.chatapp.auth_service.controller;
+
+import com.md.chatapp.auth_service.dto.UserSearchResult;
+import com.md.chatapp.auth_service.model.Permission;
+import com.md.chatapp.auth_service.security.RequiresPermission;
+import com.md.chatapp.auth_service.service.UserDirectoryService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    private final UserDirectoryService userDirectoryService;
+
+    @Autowired
+    public UserController(UserDirectoryService userDirectoryService) {
+        this.userDirectoryService = userDirectoryService;
+    }
+
+    // Contact search by username prefix (1-2 characters) or substring (3+ characters)
+    @GetMapping("/search")
+    @RequiresPermission(Permission.USER_SEARCH)
+    public ResponseEntity<List<UserSearchResult>> searchUsers(@RequestParam("q") String query,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        List<UserSearchResult> results = userDirectoryService.search(query, limit).stream()
+                .map(match -> new UserSearchResult(match.userId(), match.username()))
+                .toList();
+        return ResponseEntity.ok(results);
+    }
+}
@@ -0,0 +1,15 @@
+package com.md.chatapp.auth_service.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class EmailRequest {
+
+    @NotBlank(message = "Email cannot be blank")
+    @Email
+    @Size(max = 100, message = "Email cannot exceed 100 characters.")
+    private String email;
+}
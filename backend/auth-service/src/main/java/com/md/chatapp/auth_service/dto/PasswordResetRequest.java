@@ -0,0 +1,17 @@
+package com.md.chatapp.auth_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class PasswordResetRequest {
+
+    @NotBlank(message = "Token cannot be blank")
+    @Size(max = 100, message = "Token is too long")
+    private String token;
+
+    @NotBlank(message = "Password cannot be blank")
+    @Size(min = 6, max = 40, message = "Password must be between 6 and 40 characters")
+    private String newPassword;
+}
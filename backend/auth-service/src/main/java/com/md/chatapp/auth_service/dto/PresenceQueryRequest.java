@@ -0,0 +1,15 @@
+package com.md.chatapp.auth_service.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PresenceQueryRequest {
+
+    @NotNull(message = "userIds cannot be null")
+    @Size(max = 1000, message = "At most 1000 user ids can be queried at once")
+    private List<Long> userIds;
+}
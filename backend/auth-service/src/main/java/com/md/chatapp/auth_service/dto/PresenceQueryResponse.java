@@ -0,0 +1,10 @@
+package com.md.chatapp.auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PresenceQueryResponse {
+    private long[] online;
+}
@@ -0,0 +1,18 @@
+package com.md.chatapp.auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Flat, unmanaged projection of a user for the admin export; never carries the password hash
+@Data
+@AllArgsConstructor
+public class UserExportRow {
+    private Long id;
+    private String username;
+    private String email;
+    private int roleMask;
+    private boolean enabled;
+    private boolean accountLocked;
+    private boolean accountExpired;
+    private boolean credentialsExpired;
+}
@@ -0,0 +1,11 @@
+package com.md.chatapp.auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserSearchResult {
+    private Long id;
+    private String username;
+}
@@ -0,0 +1,13 @@
+package com.md.chatapp.auth_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class VerifyEmailRequest {
+
+    @NotBlank(message = "Token cannot be blank")
+    @Size(max = 100, message = "Token is too long")
+    private String token;
+}
@@ -0,0 +1,8 @@
+package com.md.chatapp.auth_service.exception;
+
+public class DatabaseOverloadedException extends DomainException {
+
+    public DatabaseOverloadedException() {
+        super(ErrorCode.SERVICE_OVERLOADED);
+    }
+}
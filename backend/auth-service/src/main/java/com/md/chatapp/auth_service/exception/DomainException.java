@@ -0,0 +1,20 @@
+package com.md.chatapp.auth_service.exception;
+
+/**
+ * Base class for expected business failures. These are control flow, not bugs,
+ * so the stack trace is never captured: throwing one costs about as much as
+ * allocating it, even when bots flood an endpoint.
+ */
+public class DomainException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    public DomainException(ErrorCode errorCode) {
+        super(errorCode.getMessage(), null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
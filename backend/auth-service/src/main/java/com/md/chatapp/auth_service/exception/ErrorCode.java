@@ -0,0 +1,64 @@
+package com.md.chatapp.auth_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AccountExpiredException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Every expected (non-bug) failure the API reports, with its status and message.
+ * Response bodies for these are serialized once by {@link ErrorResponses}.
+ */
+public enum ErrorCode {
+    USERNAME_TAKEN(HttpStatus.CONFLICT, "Error: Username is already taken!"),
+    EMAIL_TAKEN(HttpStatus.CONFLICT, "Error: Email is already taken."),
+    BAD_CREDENTIALS(HttpStatus.UNAUTHORIZED, "Authentication Failed: Bad credentials"),
+    ACCOUNT_DISABLED(HttpStatus.UNAUTHORIZED, "Authentication Failed: User is disabled"),
+    ACCOUNT_LOCKED(HttpStatus.UNAUTHORIZED, "Authentication Failed: User account is locked"),
+    ACCOUNT_EXPIRED(HttpStatus.UNAUTHORIZED, "Authentication Failed: User account has expired"),
+    CREDENTIALS_EXPIRED(HttpStatus.UNAUTHORIZED, "Authentication Failed: User credentials have expired"),
+    ACCESS_DENIED(HttpStatus.FORBIDDEN, "Access denied"),
+    INVALID_TOKEN(HttpStatus.BAD_REQUEST, "The link is invalid or has expired. Please request a new one."),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request"),
+    SERVICE_OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "Service is temporarily overloaded. Please retry shortly."),
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "An internal server error occurred. Please try again later.");
+
+    private final HttpStatus status;
+    private final String message;
+
+    ErrorCode(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // Unknown authentication failures are reported as bad credentials so nothing leaks
+    public static ErrorCode fromAuthenticationException(AuthenticationException ex) {
+        // Providers wrap failures from the UserDetailsService, e.g. a shed database call
+        if (ex.getCause() instanceof DomainException domainException) {
+            return domainException.getErrorCode();
+        }
+        if (ex instanceof DisabledException) {
+            return ACCOUNT_DISABLED;
+        }
+        if (ex instanceof LockedException) {
+            return ACCOUNT_LOCKED;
+        }
+        if (ex instanceof AccountExpiredException) {
+            return ACCOUNT_EXPIRED;
+        }
+        if (ex instanceof CredentialsExpiredException) {
+            return CREDENTIALS_EXPIRED;
+        }
+        return BAD_CREDENTIALS;
+    }
+}
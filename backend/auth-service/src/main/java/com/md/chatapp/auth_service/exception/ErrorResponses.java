@@ -0,0 +1,44 @@
+package com.md.chatapp.auth_service.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.chatapp.auth_service.dto.ApiResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Catalog of ready-made error responses, one per {@link ErrorCode}. The
+ * {@link ApiResponse} JSON is serialized once at startup and the immutable
+ * ResponseEntity is shared by every request that fails with that code.
+ * 503 responses carry a Retry-After header.
+ */
+@Component
+public class ErrorResponses {
+
+    private final Map<ErrorCode, ResponseEntity<byte[]>> responses = new EnumMap<>(ErrorCode.class);
+
+    public ErrorResponses(ObjectMapper objectMapper,
+                          @Value("${app.db-guard.retry-after-seconds:2}") int retryAfterSeconds) throws JsonProcessingException {
+        for (ErrorCode code : ErrorCode.values()) {
+            byte[] body = objectMapper.writeValueAsBytes(new ApiResponse(false, code.getMessage()));
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(code.getStatus())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(body.length);
+            if (code.getStatus() == HttpStatus.SERVICE_UNAVAILABLE) {
+                builder.header(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+            }
+            responses.put(code, builder.body(body));
+        }
+    }
+
+    public ResponseEntity<byte[]> of(ErrorCode code) {
+        return responses.get(code);
+    }
+}
@@ -1,11 +1,10 @@
 package com.md.chatapp.auth_service.exception;
 import com.md.chatapp.auth_service.dto.ApiResponse;
-// Import specific exceptions you might create later
-// import com.yourcompany.chatapp.auth.exception.UsernameAlreadyExistsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException; // Handle general auth failures
 import org.springframework.web.bind.MethodArgumentNotValidException; // Handle @Valid failures
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -19,6 +18,12 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final ErrorResponses errorResponses;
+
+    public GlobalExceptionHandler(ErrorResponses errorResponses) {
+        this.errorResponses = errorResponses;
+    }
+
     // Handler for @Valid validation errors
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST) // Set status code directly
@@ -34,27 +39,23 @@ public class GlobalExceptionHandler {
 
     // Handler for Authentication Exceptions (like BadCredentials)
     @ExceptionHandler(AuthenticationException.class)
-    @ResponseStatus(HttpStatus.UNAUTHORIZED)
-    public ResponseEntity<ApiResponse> handleAuthenticationException(AuthenticationException ex) {
+    public ResponseEntity<byte[]> handleAuthenticationException(AuthenticationException ex) {
         logger.warn("Authentication failed: {}", ex.getMessage());
-        ApiResponse errorResponse = new ApiResponse(false, "Authentication Failed: " + ex.getMessage());
-        // Avoid leaking too much detail in production messages for security
-        // ApiResponse errorResponse = new ApiResponse(false, "Invalid credentials or authentication required");
-        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+        return errorResponses.of(ErrorCode.fromAuthenticationException(ex));
+    }
+
+    // Method security (@PreAuthorize, @RequiresPermission) denials; without this they'd become a 500
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<byte[]> handleAccessDenied(AccessDeniedException ex) {
+        logger.debug("Access denied: {}", ex.getMessage());
+        return errorResponses.of(ErrorCode.ACCESS_DENIED);
     }
 
-    // Example Handler for a specific custom exception (if you create one)
-    // Replace RuntimeException with your specific exception (e.g., UsernameAlreadyExistsException)
-    @ExceptionHandler(RuntimeException.class) // Catching Runtime temporarily, be more specific!
-    public ResponseEntity<ApiResponse> handleUsernameExistsException(RuntimeException ex) {
-        // Assuming this RuntimeException is thrown when username exists
-        if (ex.getMessage() != null && ex.getMessage().contains("Username is already taken")) {
-             logger.warn("Registration conflict: {}", ex.getMessage());
-             ApiResponse errorResponse = new ApiResponse(false, ex.getMessage());
-             return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT); // 409 Conflict is suitable
-        }
-        // If it's another RuntimeException, treat as internal server error
-        return handleGenericException(ex);
+    // Expected business failures: answered from the preserialized catalog, no stack trace to log
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<byte[]> handleDomainException(DomainException ex) {
+        logger.debug("Domain error: {}", ex.getErrorCode());
+        return errorResponses.of(ex.getErrorCode());
     }
 
 
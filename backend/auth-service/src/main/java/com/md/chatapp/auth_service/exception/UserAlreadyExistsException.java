@@ -0,0 +1,8 @@
+package com.md.chatapp.auth_service.exception;
+
+public class UserAlreadyExistsException extends DomainException {
+
+    public UserAlreadyExistsException(ErrorCode errorCode) {
+        super(errorCode);
+    }
+}
@@ -0,0 +1,23 @@
+package com.md.chatapp.auth_service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.md.chatapp.auth.AuthFilter")
+@Label("Auth Filter")
+@Category({"Chat App", "Auth"})
+@Description("Time AuthTokenFilter spends authenticating a request, excluding the rest of the filter chain")
+@StackTrace(false)
+public class AuthFilterEvent extends Event {
+
+    @Label("Outcome")
+    @Description("AUTHENTICATED, GATEWAY, CLAIMS_ONLY, NO_TOKEN, INVALID_TOKEN, INVALID_IDENTITY, ANONYMOUS or ERROR")
+    public String outcome;
+
+    @Label("Path")
+    public String path;
+}
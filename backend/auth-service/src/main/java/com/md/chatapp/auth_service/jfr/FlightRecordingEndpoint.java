@@ -0,0 +1,117 @@
+package com.md.chatapp.auth_service.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@code GET /actuator/jfr?seconds=30}: records a live instance with JDK Flight Recorder
+ * for a bounded time and returns the .jfr file (open it in JDK Mission Control or with
+ * {@code jfr print}). Uses the JDK's low-overhead "default" settings plus the auth
+ * events in this package; nothing needs to be restarted or attached.
+ *
+ * The request thread is held for the length of the recording (at most
+ * {@code app.jfr.max-seconds}); since only one recording runs at a time, that is at most
+ * one servlet thread. The file is streamed back from disk and deleted once written, so
+ * it never has to fit on the heap.
+ *
+ * Expose it with
+ * {@code management.endpoints.web.exposure.include=health,jfr}; SecurityConfig
+ * restricts it to admins.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+
+    private final int defaultSeconds;
+    private final int maxSeconds;
+    private final AtomicBoolean recording = new AtomicBoolean(false);
+
+    public FlightRecordingEndpoint(@Value("${app.jfr.default-seconds:30}") int defaultSeconds,
+                                   @Value("${app.jfr.max-seconds:300}") int maxSeconds) {
+        this.defaultSeconds = defaultSeconds;
+        this.maxSeconds = maxSeconds;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> record(@Nullable Integer seconds) throws IOException, ParseException {
+        int duration = seconds == null ? defaultSeconds : seconds;
+        if (duration < 1 || duration > maxSeconds) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!recording.compareAndSet(false, true)) {
+            return new WebEndpointResponse<>(409);
+        }
+        Path file = Files.createTempFile("auth-service-", ".jfr");
+        boolean handedOff = false;
+        try (Recording jfr = new Recording(Configuration.getConfiguration("default"))) {
+            jfr.setName("auth-service on-demand");
+            jfr.enable(TokenVerificationEvent.class);
+            jfr.enable(PrincipalLoadEvent.class);
+            jfr.enable(PasswordEncodingEvent.class);
+            jfr.enable(AuthFilterEvent.class);
+            jfr.setToDisk(true);
+            logger.info("Starting {} s flight recording", duration);
+            jfr.start();
+            try {
+                Thread.sleep(Duration.ofSeconds(duration));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            jfr.stop();
+            jfr.dump(file);
+            logger.info("Flight recording finished: {} KiB", Files.size(file) / 1024);
+            // Backstop in case the response is never written
+            file.toFile().deleteOnExit();
+            handedOff = true;
+            return new WebEndpointResponse<>(new DeleteOnCloseResource(file), WebEndpointResponse.STATUS_OK);
+        } finally {
+            if (!handedOff) {
+                Files.deleteIfExists(file);
+            }
+            recording.set(false);
+        }
+    }
+
+    // The message converter closes the stream after copying it to the response
+    static final class DeleteOnCloseResource extends FileSystemResource {
+
+        DeleteOnCloseResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
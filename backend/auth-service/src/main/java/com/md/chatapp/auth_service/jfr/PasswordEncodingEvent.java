@@ -0,0 +1,24 @@
+package com.md.chatapp.auth_service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.md.chatapp.auth.PasswordEncoding")
+@Label("Password Encoding")
+@Category({"Chat App", "Auth"})
+@Description("BCrypt hash or verification through the application PasswordEncoder")
+@StackTrace(false)
+public class PasswordEncodingEvent extends Event {
+
+    @Label("Operation")
+    @Description("ENCODE or MATCH")
+    public String operation;
+
+    @Label("Outcome")
+    @Description("ENCODED, MATCH, MISMATCH or ERROR")
+    public String outcome;
+}
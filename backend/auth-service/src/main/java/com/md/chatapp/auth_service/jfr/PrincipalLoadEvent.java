@@ -0,0 +1,20 @@
+package com.md.chatapp.auth_service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.md.chatapp.auth.PrincipalLoad")
+@Label("Principal Load")
+@Category({"Chat App", "Auth"})
+@Description("User lookup by UserDetailsServiceImpl, including time spent waiting for a connection")
+@StackTrace(false)
+public class PrincipalLoadEvent extends Event {
+
+    @Label("Outcome")
+    @Description("FOUND, NOT_FOUND, SHED or ERROR")
+    public String outcome;
+}
@@ -0,0 +1,24 @@
+package com.md.chatapp.auth_service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.md.chatapp.auth.TokenVerification")
+@Label("Token Verification")
+@Category({"Chat App", "Auth"})
+@Description("JWT signature check and claim extraction in JwtUtils.parseToken")
+@StackTrace(false)
+public class TokenVerificationEvent extends Event {
+
+    @Label("Outcome")
+    @Description("VALID, EXPIRED, BAD_SIGNATURE, MALFORMED or REJECTED")
+    public String outcome;
+
+    @Label("Profile")
+    @Description("Token profile that issued a valid token: standard or compact")
+    public String profile;
+}
@@ -0,0 +1,311 @@
+package com.md.chatapp.auth_service.mail;
+
+import com.md.chatapp.auth_service.model.OutboxMail;
+import com.md.chatapp.auth_service.repository.OutboxMailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the mail outbox on a fixed number of background workers.
+ * <p>
+ * Each worker claims up to {@code batch-size} due rows under a row lock,
+ * pushes their next attempt out by a lease so nobody else picks them up, and
+ * sends the whole batch over one pooled SMTP connection. The lease is never
+ * shorter than a batch in which every message runs into the SMTP timeout,
+ * otherwise another worker could re-claim rows that are still being sent. Transient failures
+ * back off exponentially; after {@code max-attempts}, or on a rejected
+ * address, the row is dead-lettered and left for an operator. Workers sleep
+ * between polls and are woken early when a new mail commits.
+ */
+@Component
+public class MailDispatcher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final Duration LEASE_MARGIN = Duration.ofSeconds(30);
+
+    private final OutboxMailRepository outboxRepository;
+    private final SmtpConnectionPool connectionPool;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final InternetAddress from;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final long pollIntervalMs;
+
+    private final Timer sendLatency;
+    private final Timer deliveryDelay;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter dead;
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private volatile boolean running = false;
+    private ExecutorService executor;
+
+    public MailDispatcher(OutboxMailRepository outboxRepository, SmtpConnectionPool connectionPool,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          @Value("${app.mail.enabled:true}") boolean enabled,
+                          @Value("${app.mail.from:no-reply@chatapp.local}") String from,
+                          @Value("${app.mail.workers:2}") int workers,
+                          @Value("${app.mail.batch-size:20}") int batchSize,
+                          @Value("${app.mail.max-attempts:6}") int maxAttempts,
+                          @Value("${app.mail.backoff-ms:2000}") long backoffMs,
+                          @Value("${app.mail.max-backoff-ms:600000}") long maxBackoffMs,
+                          @Value("${app.mail.lease-ms:0}") long leaseMs,
+                          @Value("${app.mail.timeout-ms:5000}") long timeoutMs,
+                          @Value("${app.mail.poll-interval-ms:5000}") long pollIntervalMs) throws AddressException {
+        this.outboxRepository = outboxRepository;
+        this.connectionPool = connectionPool;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.from = new InternetAddress(from, true);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofMillis(backoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.lease = lease(leaseMs, batchSize, timeoutMs);
+        this.pollIntervalMs = pollIntervalMs;
+
+        meterRegistry.gauge("mail.outbox.depth", outboxRepository,
+                repository -> repository.countByStatus(OutboxMail.Status.PENDING));
+        this.sendLatency = Timer.builder("mail.send.latency")
+                .description("Time to hand one message to the SMTP server")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.deliveryDelay = Timer.builder("mail.delivery.delay")
+                .description("Time from enqueue to successful send")
+                .register(meterRegistry);
+        this.sent = meterRegistry.counter("mail.sent");
+        this.failed = meterRegistry.counter("mail.failed");
+        this.dead = meterRegistry.counter("mail.dead");
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            logger.info("Mail dispatch is disabled; outbox rows will accumulate until it is enabled");
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::workLoop);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeups.release(workers);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMailEnqueued(MailEnqueuedEvent event) {
+        if (running && wakeups.availablePermits() < workers) {
+            wakeups.release();
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            int claimed;
+            try {
+                claimed = dispatchOnce();
+            } catch (RuntimeException e) {
+                logger.warn("Mail dispatch cycle failed: {}", e.getMessage());
+                claimed = 0;
+            }
+            // A full batch means there is probably more waiting; go straight back
+            if (claimed < batchSize) {
+                try {
+                    wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Claims and sends one batch; returns how many rows were claimed
+    int dispatchOnce() {
+        List<OutboxMail> batch = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxMail> due = outboxRepository.findDueForUpdate(now, Limit.of(batchSize));
+            Instant leaseUntil = now.plus(lease);
+            due.forEach(mail -> mail.setNextAttemptAt(leaseUntil));
+            return due;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        sendBatch(batch);
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    private void sendBatch(List<OutboxMail> batch) {
+        Transport transport;
+        try {
+            transport = connectionPool.borrow();
+        } catch (MessagingException e) {
+            logger.warn("Cannot connect to SMTP server: {}", e.getMessage());
+            batch.forEach(mail -> scheduleRetry(mail, e));
+            return;
+        }
+
+        boolean reusable = true;
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMail mail = batch.get(i);
+            try {
+                MimeMessage message = toMessage(mail);
+                long start = System.nanoTime();
+                transport.sendMessage(message, message.getAllRecipients());
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                markSent(mail);
+            } catch (AddressException e) {
+                deadLetter(mail, e);
+            } catch (SendFailedException e) {
+                // The server refused this message (e.g. unknown recipient); the connection is still fine
+                if (e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0) {
+                    deadLetter(mail, e);
+                } else {
+                    scheduleRetry(mail, e);
+                }
+            } catch (MessagingException e) {
+                // The connection itself broke: retry this one, release the rest of the lease, drop the transport
+                logger.warn("SMTP connection failed mid-batch: {}", e.getMessage());
+                reusable = false;
+                scheduleRetry(mail, e);
+                Instant now = Instant.now();
+                batch.subList(i + 1, batch.size()).forEach(rest -> rest.setNextAttemptAt(now));
+                break;
+            }
+        }
+        connectionPool.release(transport, reusable);
+    }
+
+    private MimeMessage toMessage(OutboxMail mail) throws MessagingException {
+        MimeMessage message = new MimeMessage(connectionPool.getSession());
+        message.setFrom(from);
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(mail.getRecipient(), true));
+        message.setSubject(mail.getSubject(), "UTF-8");
+        message.setText(mail.getBody(), "UTF-8");
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    private void markSent(OutboxMail mail) {
+        Instant now = Instant.now();
+        mail.setAttempts(mail.getAttempts() + 1);
+        mail.setStatus(OutboxMail.Status.SENT);
+        mail.setSentAt(now);
+        mail.setLastError(null);
+        sent.increment();
+        deliveryDelay.record(Duration.between(mail.getCreatedAt(), now));
+    }
+
+    private void scheduleRetry(OutboxMail mail, Exception cause) {
+        int attempts = mail.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            mail.setAttempts(attempts);
+            deadLetter(mail, cause);
+            return;
+        }
+        mail.setAttempts(attempts);
+        mail.setLastError(truncate(cause.getMessage()));
+        mail.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+        failed.increment();
+    }
+
+    private void deadLetter(OutboxMail mail, Exception cause) {
+        logger.warn("Dead-lettering mail {} to {} after {} attempt(s): {}",
+                mail.getId(), mail.getRecipient(), mail.getAttempts(), cause.getMessage());
+        mail.setStatus(OutboxMail.Status.DEAD);
+        mail.setLastError(truncate(cause.getMessage()));
+        dead.increment();
+    }
+
+    // Connect plus one full timeout per message, with some slack; 0 means "derive it"
+    static Duration lease(long configuredMs, int batchSize, long timeoutMs) {
+        Duration minimum = Duration.ofMillis(timeoutMs * (batchSize + 1L)).plus(LEASE_MARGIN);
+        if (configuredMs <= 0) {
+            return minimum;
+        }
+        if (configuredMs < minimum.toMillis()) {
+            logger.warn("app.mail.lease-ms={} is shorter than a worst-case batch ({} x {} ms); using {} ms",
+                    configuredMs, batchSize, timeoutMs, minimum.toMillis());
+            return minimum;
+        }
+        return Duration.ofMillis(configuredMs);
+    }
+
+    private Duration backoff(int attempts) {
+        long millis = baseBackoff.toMillis() << Math.min(attempts - 1, 20);
+        return millis > maxBackoff.toMillis() ? maxBackoff : Duration.ofMillis(millis);
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,8 @@
+package com.md.chatapp.auth_service.mail;
+
+/**
+ * Published by {@link MailOutboxService} when a mail is written to the outbox;
+ * the dispatcher wakes up once the enclosing transaction commits.
+ */
+public record MailEnqueuedEvent(Long mailId) {
+}
@@ -0,0 +1,41 @@
+package com.md.chatapp.auth_service.mail;
+
+import com.md.chatapp.auth_service.model.OutboxMail;
+import com.md.chatapp.auth_service.repository.OutboxMailRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Writes outgoing mail to the outbox table. It must join the caller's
+ * transaction: the mail is only sent if the change that caused it commits,
+ * and the caller never waits on SMTP.
+ */
+@Service
+public class MailOutboxService {
+
+    private final OutboxMailRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public MailOutboxService(OutboxMailRepository outboxRepository, ApplicationEventPublisher eventPublisher) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxMail enqueue(String recipient, String subject, String body) {
+        Instant now = Instant.now();
+        OutboxMail mail = new OutboxMail();
+        mail.setRecipient(recipient);
+        mail.setSubject(subject);
+        mail.setBody(body);
+        mail.setCreatedAt(now);
+        mail.setNextAttemptAt(now);
+        OutboxMail saved = outboxRepository.save(mail);
+        eventPublisher.publishEvent(new MailEnqueuedEvent(saved.getId()));
+        return saved;
+    }
+}
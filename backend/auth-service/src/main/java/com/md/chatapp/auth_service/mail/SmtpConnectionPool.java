@@ -0,0 +1,105 @@
+package com.md.chatapp.auth_service.mail;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a small set of SMTP connections open between dispatch batches, so a
+ * batch pays for one EHLO/AUTH round trip at most instead of one per message.
+ * Idle connections are checked with a NOOP on borrow and reopened if the
+ * server dropped them; a connection that failed mid-send is discarded.
+ */
+@Component
+public class SmtpConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpConnectionPool.class);
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final BlockingQueue<Transport> idle;
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    public SmtpConnectionPool(@Value("${app.mail.host:localhost}") String host,
+                              @Value("${app.mail.port:25}") int port,
+                              @Value("${app.mail.username:}") String username,
+                              @Value("${app.mail.password:}") String password,
+                              @Value("${app.mail.starttls:false}") boolean startTls,
+                              @Value("${app.mail.pool-size:4}") int poolSize,
+                              @Value("${app.mail.timeout-ms:5000}") int timeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+
+        Properties props = new Properties();
+        props.put("mail.transport.protocol", "smtp");
+        props.put("mail.smtp.auth", Boolean.toString(StringUtils.hasText(username)));
+        props.put("mail.smtp.starttls.enable", Boolean.toString(startTls));
+        props.put("mail.smtp.connectiontimeout", Integer.toString(timeoutMs));
+        props.put("mail.smtp.timeout", Integer.toString(timeoutMs));
+        props.put("mail.smtp.writetimeout", Integer.toString(timeoutMs));
+        this.session = Session.getInstance(props);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    // Hands out a connected transport, reusing an idle one when it still answers
+    public Transport borrow() throws MessagingException {
+        Transport transport = idle.poll();
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        if (transport == null) {
+            transport = session.getTransport("smtp");
+        }
+        transport.connect(host, port, StringUtils.hasText(username) ? username : null,
+                StringUtils.hasText(password) ? password : null);
+        connectionsOpened.incrementAndGet();
+        return transport;
+    }
+
+    public void release(Transport transport, boolean reusable) {
+        if (reusable && idle.offer(transport)) {
+            return;
+        }
+        closeQuietly(transport);
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            closeQuietly(transport);
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+}
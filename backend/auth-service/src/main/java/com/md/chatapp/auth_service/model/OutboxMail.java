@@ -0,0 +1,54 @@
+package com.md.chatapp.auth_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Transactional outbox row: written in the same transaction as the change that triggers the mail
+@Entity
+@Table(name = "mail_outbox", indexes = @Index(name = "idx_mail_outbox_due", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+public class OutboxMail {
+
+    public enum Status {
+        PENDING,
+        SENT,
+        DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 4000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    // Also serves as the claim lease while a worker is sending
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+}
@@ -0,0 +1,27 @@
+package com.md.chatapp.auth_service.model;
+
+/**
+ * Fine-grained actions checked by {@link com.md.chatapp.auth_service.security.RequiresPermission}.
+ * Each permission is one bit of a long; roles map to precomputed permission sets in
+ * {@link com.md.chatapp.auth_service.security.RolePermissions}.
+ */
+public enum Permission {
+    USER_SEARCH,
+    PRESENCE_READ,
+    PRESENCE_UPDATE,
+    CHAT_SEND,
+    USER_EXPORT,
+    USER_MANAGE;
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public static long toBits(Permission... permissions) {
+        long bits = 0;
+        for (Permission permission : permissions) {
+            bits |= permission.bit();
+        }
+        return bits;
+    }
+}
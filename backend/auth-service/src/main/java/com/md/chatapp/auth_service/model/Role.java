@@ -1,6 +1,83 @@
 package com.md.chatapp.auth_service.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Roles and their bits in persisted role masks ({@code app_users.role_mask}) and
+ * in the compact JWT {@code r} claim. Bits are explicit so constants can be
+ * added or reordered freely; a bit, once assigned, must never be reused.
+ * api-gateway's {@code JwtVerifier} maps role names to the same bits.
+ */
 public enum Role {
-    ROLE_USER,  
-    ROLE_ADMIN
+    ROLE_USER(0),
+    ROLE_ADMIN(1, ROLE_USER); // Role hierarchy: an admin is also a user
+
+    // Number of distinct bitmask values, used to size lookup tables keyed by mask
+    public static final int MASK_COUNT;
+
+    // Mask -> mask including every transitively implied role
+    private static final int[] EFFECTIVE_MASK;
+
+    static {
+        int used = 0;
+        for (Role role : values()) {
+            if ((used & role.mask()) != 0) {
+                throw new IllegalStateException("Role bit " + role.bit + " is assigned twice");
+            }
+            used |= role.mask();
+        }
+        MASK_COUNT = Integer.highestOneBit(used) << 1;
+        EFFECTIVE_MASK = new int[MASK_COUNT];
+        for (int mask = 0; mask < MASK_COUNT; mask++) {
+            int effective = mask;
+            int previous;
+            do {
+                previous = effective;
+                for (Role role : values()) {
+                    if ((effective & role.mask()) != 0) {
+                        effective |= toMask(role.implied);
+                    }
+                }
+            } while (effective != previous);
+            EFFECTIVE_MASK[mask] = effective;
+        }
+    }
+
+    private final int bit;
+    private final Set<Role> implied;
+
+    Role(int bit, Role... implied) {
+        this.bit = bit;
+        this.implied = implied.length == 0 ? Set.of() : Set.of(implied);
+    }
+
+    /**
+     * @return the mask with every role implied through the hierarchy added
+     */
+    public static int effectiveMask(int mask) {
+        return EFFECTIVE_MASK[mask];
+    }
+
+    public int mask() {
+        return 1 << bit;
+    }
+
+    public static int toMask(Set<Role> roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= role.mask();
+        }
+        return mask;
+    }
+
+    public static Set<Role> fromMask(int mask) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : values()) {
+            if ((mask & role.mask()) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
 }
@@ -0,0 +1,6 @@
+package com.md.chatapp.auth_service.model;
+
+public enum TokenPurpose {
+    EMAIL_VERIFICATION,
+    PASSWORD_RESET
+}
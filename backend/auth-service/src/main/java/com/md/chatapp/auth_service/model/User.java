@@ -8,7 +8,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.util.HashSet;
 import java.util.Set;
 
 @Entity
@@ -34,11 +33,9 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "role")
-    @Enumerated(EnumType.STRING) 
-    private Set<Role> roles = new HashSet<>();
+    // Roles are stored as a bitmask of Role.mask() values instead of a user_roles join table
+    @Column(name = "role_mask", nullable = false, columnDefinition = "integer default 0 not null")
+    private int roleMask = 0;
 
     @Column(nullable = false)
     private boolean enabled = true;
@@ -51,4 +48,16 @@ public class User {
 
     @Column(nullable = false)
     private boolean credentialsExpired = false;
+
+    public Set<Role> getRoles() {
+        return Role.fromMask(roleMask);
+    }
+
+    public void addRole(Role role) {
+        this.roleMask |= role.mask();
+    }
+
+    public boolean hasRole(Role role) {
+        return (roleMask & role.mask()) != 0;
+    }
 }
@@ -0,0 +1,38 @@
+package com.md.chatapp.auth_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Single-use account token; only the SHA-256 of the emailed value is stored
+@Entity
+@Table(name = "user_tokens", indexes = @Index(name = "idx_user_tokens_user_purpose", columnList = "user_id, purpose"))
+@Data
+@NoArgsConstructor
+public class UserToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private TokenPurpose purpose;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,27 @@
+package com.md.chatapp.auth_service.repository;
+
+import com.md.chatapp.auth_service.model.OutboxMail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxMailRepository extends JpaRepository<OutboxMail, Long> {
+
+    // Row locks keep concurrent workers (threads or instances) from claiming the same mail;
+    // lock timeout -2 is SKIP LOCKED, so a worker takes the next free rows instead of waiting
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from OutboxMail m where m.status = com.md.chatapp.auth_service.model.OutboxMail.Status.PENDING "
+            + "and m.nextAttemptAt <= :now order by m.id")
+    List<OutboxMail> findDueForUpdate(@Param("now") Instant now, Limit limit);
+
+    long countByStatus(OutboxMail.Status status);
+}
@@ -1,8 +1,19 @@
 package com.md.chatapp.auth_service.repository;
 
+import com.md.chatapp.auth_service.dto.UserExportRow;
 import com.md.chatapp.auth_service.model.User;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 public interface UserRepository extends JpaRepository<User, Long>{
     Optional<User> findByUsername(String username);
@@ -12,4 +23,33 @@ public interface UserRepository extends JpaRepository<User, Long>{
     Boolean existsByUsername(String username);
 
     Optional<User> findByUsernameOrEmail(String username, String email);
+
+    // Single-table projection for the authentication hot path: no managed entity, no join
+    @Query("select new com.md.chatapp.auth_service.security.UserDetailsImpl("
+            + "u.id, u.username, u.email, u.password, u.roleMask, "
+            + "u.enabled, u.accountLocked, u.accountExpired, u.credentialsExpired) "
+            + "from User u where u.username = :login or u.email = :login")
+    Optional<UserDetailsImpl> findPrincipalByUsernameOrEmail(@Param("login") String usernameOrEmail);
+
+    // Forward-only scans used to build in-memory indexes at startup; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u.username, u.email from User u")
+    Stream<Object[]> streamUsernamesAndEmails();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u.id, u.username from User u order by u.id")
+    Stream<Object[]> streamIdsAndUsernames();
+
+    // Keyset page for the admin export: each call is a short, independent index range scan
+    @Query("select new com.md.chatapp.auth_service.dto.UserExportRow("
+            + "u.id, u.username, u.email, u.roleMask, "
+            + "u.enabled, u.accountLocked, u.accountExpired, u.credentialsExpired) "
+            + "from User u where u.id > :afterId order by u.id")
+    List<UserExportRow> findExportPage(@Param("afterId") long afterId, Limit limit);
 }
@@ -0,0 +1,30 @@
+package com.md.chatapp.auth_service.repository;
+
+import com.md.chatapp.auth_service.model.TokenPurpose;
+import com.md.chatapp.auth_service.model.UserToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface UserTokenRepository extends JpaRepository<UserToken, Long> {
+
+    Optional<UserToken> findByTokenHashAndPurpose(String tokenHash, TokenPurpose purpose);
+
+    // Is there an unused, unexpired token issued since the given instant? Backs the resend cooldown
+    boolean existsByUserIdAndPurposeAndUsedAtIsNullAndExpiresAtAfterAndCreatedAtAfter(
+            Long userId, TokenPurpose purpose, Instant now, Instant since);
+
+    // Conditional update, so two concurrent redemptions of the same token can't both succeed
+    @Modifying
+    @Query("update UserToken t set t.usedAt = :now where t.id = :id and t.usedAt is null and t.expiresAt > :now")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    // Issuing a new token retires the user's older ones for the same purpose
+    @Modifying
+    @Query("update UserToken t set t.usedAt = :now where t.userId = :userId and t.purpose = :purpose and t.usedAt is null")
+    int retireActive(@Param("userId") Long userId, @Param("purpose") TokenPurpose purpose, @Param("now") Instant now);
+}
@@ -0,0 +1,52 @@
+package com.md.chatapp.auth_service.security;
+
+import com.md.chatapp.auth_service.jfr.PasswordEncodingEvent;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Emits a {@link PasswordEncodingEvent} around every hash and verification of the
+ * wrapped encoder. Event cost is negligible next to a BCrypt round.
+ */
+public class JfrPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    public JfrPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordEncodingEvent event = new PasswordEncodingEvent();
+        event.begin();
+        event.operation = "ENCODE";
+        event.outcome = "ERROR";
+        try {
+            String encoded = delegate.encode(rawPassword);
+            event.outcome = "ENCODED";
+            return encoded;
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordEncodingEvent event = new PasswordEncodingEvent();
+        event.begin();
+        event.operation = "MATCH";
+        event.outcome = "ERROR";
+        try {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            event.outcome = matches ? "MATCH" : "MISMATCH";
+            return matches;
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
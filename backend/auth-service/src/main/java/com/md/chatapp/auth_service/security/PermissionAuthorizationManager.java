@@ -0,0 +1,62 @@
+package com.md.chatapp.auth_service.security;
+
+import com.md.chatapp.auth_service.model.Permission;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Authorizes {@link RequiresPermission} methods. The required bits are resolved from the
+ * annotation once per method and target class and cached (an interface or inherited
+ * method can carry different annotations on each implementation); each check is then a map lookup plus
+ * {@code (granted & required) == required}, with shared decision instances.
+ */
+public final class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Map<MethodClassKey, Long> requiredByMethod = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Object target = invocation.getThis();
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : invocation.getMethod().getDeclaringClass();
+        long required = requiredByMethod.computeIfAbsent(new MethodClassKey(invocation.getMethod(), targetClass),
+                key -> resolveRequired(invocation.getMethod(), targetClass));
+        Authentication current = authentication.get();
+        if (current == null || !current.isAuthenticated()) {
+            return DENIED;
+        }
+        return (RolePermissions.forAuthentication(current) & required) == required ? GRANTED : DENIED;
+    }
+
+    // Still abstract on the interface; the interceptor only calls authorize
+    @Override
+    @Deprecated
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return (AuthorizationDecision) authorize(authentication, invocation);
+    }
+
+    private static long resolveRequired(Method method, Class<?> targetClass) {
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(specific, RequiresPermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresPermission.class);
+        }
+        if (annotation == null) {
+            throw new IllegalStateException("No @RequiresPermission on " + specific);
+        }
+        return Permission.toBits(annotation.value());
+    }
+}
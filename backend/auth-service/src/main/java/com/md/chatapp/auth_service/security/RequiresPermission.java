@@ -0,0 +1,21 @@
+package com.md.chatapp.auth_service.security;
+
+import com.md.chatapp.auth_service.model.Permission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Method security without SpEL: the caller must hold every listed permission.
+ * Checked by {@link PermissionAuthorizationManager} as a single bitwise test.
+ * On a type, applies to every method that isn't annotated itself.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPermission {
+    Permission[] value();
+}
@@ -0,0 +1,49 @@
+package com.md.chatapp.auth_service.security;
+
+import com.md.chatapp.auth_service.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared, immutable authority lists for every possible role bitmask.
+ * Built once at class load so loading a principal never allocates authorities.
+ * Each list already includes the roles implied through the {@link Role} hierarchy.
+ */
+public final class RoleAuthorities {
+
+    private static final List<GrantedAuthority>[] BY_MASK;
+
+    static {
+        GrantedAuthority[] single = new GrantedAuthority[Role.values().length];
+        for (Role role : Role.values()) {
+            single[role.ordinal()] = new SimpleGrantedAuthority(role.name());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<GrantedAuthority>[] byMask = new List[Role.MASK_COUNT];
+        for (int mask = 0; mask < Role.MASK_COUNT; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            int effective = Role.effectiveMask(mask);
+            for (Role role : Role.values()) {
+                if ((effective & role.mask()) != 0) {
+                    authorities.add(single[role.ordinal()]);
+                }
+            }
+            byMask[mask] = List.copyOf(authorities);
+        }
+        BY_MASK = byMask;
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static List<GrantedAuthority> forMask(int roleMask) {
+        if (roleMask < 0 || roleMask >= Role.MASK_COUNT) {
+            throw new IllegalArgumentException("Unknown role mask: " + roleMask);
+        }
+        return BY_MASK[roleMask];
+    }
+}
@@ -0,0 +1,66 @@
+package com.md.chatapp.auth_service.security;
+
+import com.md.chatapp.auth_service.model.Permission;
+import com.md.chatapp.auth_service.model.Role;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Permission bitsets for every possible role mask, hierarchy already applied.
+ * Built once at class load; a permission check is an array read and an AND.
+ */
+public final class RolePermissions {
+
+    private static final Map<Role, Long> GRANTS = new EnumMap<>(Role.class);
+
+    static {
+        GRANTS.put(Role.ROLE_USER, Permission.toBits(
+                Permission.USER_SEARCH, Permission.PRESENCE_READ, Permission.PRESENCE_UPDATE, Permission.CHAT_SEND));
+        GRANTS.put(Role.ROLE_ADMIN, Permission.toBits(
+                Permission.USER_EXPORT, Permission.USER_MANAGE));
+    }
+
+    private static final long[] BY_MASK = new long[Role.MASK_COUNT];
+
+    static {
+        for (int mask = 0; mask < Role.MASK_COUNT; mask++) {
+            int effective = Role.effectiveMask(mask);
+            long bits = 0;
+            for (Role role : Role.values()) {
+                if ((effective & role.mask()) != 0) {
+                    bits |= GRANTS.getOrDefault(role, 0L);
+                }
+            }
+            BY_MASK[mask] = bits;
+        }
+    }
+
+    private RolePermissions() {
+    }
+
+    public static long forMask(int roleMask) {
+        if (roleMask < 0 || roleMask >= Role.MASK_COUNT) {
+            return 0L;
+        }
+        return BY_MASK[roleMask];
+    }
+
+    public static long forAuthentication(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserDetailsImpl principal) {
+            return forMask(principal.getRoleMask());
+        }
+        // Other principal types (tests, future providers): derive the mask from authority names
+        int mask = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            for (Role role : Role.values()) {
+                if (role.name().equals(authority.getAuthority())) {
+                    mask |= role.mask();
+                }
+            }
+        }
+        return forMask(mask);
+    }
+}
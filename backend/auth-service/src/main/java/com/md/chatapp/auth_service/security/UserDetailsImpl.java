@@ -2,16 +2,11 @@ package com.md.chatapp.auth_service.security;
 
 import com.md.chatapp.auth_service.model.User; // Import your User entity
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
-import lombok.Data;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
 
 @Getter
 public class UserDetailsImpl implements UserDetails {
@@ -21,6 +16,7 @@ public class UserDetailsImpl implements UserDetails {
     private String username;
     private String email; 
     private String password;
+    private int roleMask;
     private Collection<? extends GrantedAuthority> authorities;
     private boolean enabled;    
     private boolean accountLocked; 
@@ -28,18 +24,24 @@ public class UserDetailsImpl implements UserDetails {
     private boolean credentialsExpired; 
 
     public UserDetailsImpl(User user) {
-        this.id = user.getId();
-        this.username = user.getUsername();
-        this.email = user.getEmail();
-        this.password = user.getPassword();
-        this.enabled = user.isEnabled();
-        this.accountLocked = user.isAccountLocked();
-        this.accountExpired = user.isAccountExpired();
-        this.credentialsExpired = user.isCredentialsExpired();
+        this(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), user.getRoleMask(),
+                user.isEnabled(), user.isAccountLocked(), user.isAccountExpired(), user.isCredentialsExpired());
+    }
+
+    // Used directly as a JPQL constructor expression by UserRepository.findPrincipalByUsernameOrEmail
+    public UserDetailsImpl(Long id, String username, String email, String password, int roleMask,
+                           boolean enabled, boolean accountLocked, boolean accountExpired, boolean credentialsExpired) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.roleMask = roleMask;
+        this.enabled = enabled;
+        this.accountLocked = accountLocked;
+        this.accountExpired = accountExpired;
+        this.credentialsExpired = credentialsExpired;
 
-        this.authorities = user.getRoles().stream()
-            .map(role -> new SimpleGrantedAuthority(role.name()))
-            .collect(Collectors.toList()); 
+        this.authorities = RoleAuthorities.forMask(roleMask);
     }
 
     @Override
@@ -75,4 +77,4 @@ public class UserDetailsImpl implements UserDetails {
         return Objects.hash(id); // Use ID for hash code
     }
 
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.md.chatapp.auth_service.security.jwt;
 
+import com.md.chatapp.auth_service.exception.DatabaseOverloadedException;
+import com.md.chatapp.auth_service.jfr.AuthFilterEvent;
 import com.md.chatapp.auth_service.security.UserDetailsImpl;
 import com.md.chatapp.auth_service.service.UserDetailsServiceImpl; 
 import jakarta.servlet.FilterChain;
@@ -28,6 +30,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private GatewayIdentityVerifier gatewayIdentity;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override 
@@ -42,12 +47,33 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             return; // Stop further filter execution here for this request
         }
         
+        AuthFilterEvent event = new AuthFilterEvent();
+        event.begin();
+        event.path = path;
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+            TokenClaims claims;
+            String forwardedIdentity = gatewayIdentity.isEnabled() ? request.getHeader(GatewayIdentityVerifier.HEADER) : null;
+            if (forwardedIdentity != null) {
+                // Already verified at the api-gateway; only its HMAC needs checking here
+                claims = gatewayIdentity.verify(forwardedIdentity);
+                event.outcome = claims == null ? "INVALID_IDENTITY" : "GATEWAY";
+            } else {
+                String jwt = parseJwt(request);
+                // One parse both verifies the token and yields its claims, whichever profile issued it
+                claims = jwt != null ? jwtUtils.parseToken(jwt) : null;
+                event.outcome = jwt == null ? "NO_TOKEN" : claims == null ? "INVALID_TOKEN" : "AUTHENTICATED";
+            }
+            UserDetailsImpl userDetails = null;
+            if (claims != null) {
+                try {
+                    userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.username());
+                } catch (DatabaseOverloadedException e) {
+                    // Database is shedding load: trust the verified token's own claims for now
+                    userDetails = claimsOnlyPrincipal(claims);
+                    event.outcome = userDetails != null ? "CLAIMS_ONLY" : "ANONYMOUS";
+                }
+            }
+            if (userDetails != null) {
                 //UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
                 UsernamePasswordAuthenticationToken authentication =
@@ -63,13 +89,26 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception e) {
+            event.outcome = "ERROR";
             logger.error("Cannot set user authentication: {}", e.getMessage());
+        } finally {
+            // Also reached when an Error escapes, so the recording still shows the request
+            event.commit();
         }
 
         // Continue the filter chain
         filterChain.doFilter(request, response);
     }
 
+    // Degraded-mode principal built from the token alone; null (request stays anonymous) if it lacks id or roles
+    private UserDetailsImpl claimsOnlyPrincipal(TokenClaims claims) {
+        if (claims.userId() == null || claims.roleMask() < 0) {
+            return null;
+        }
+        return new UserDetailsImpl(claims.userId(), claims.username(), null, null, claims.roleMask(),
+                true, false, false, false);
+    }
+
     // Helper method to extract JWT from the Authorization header
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
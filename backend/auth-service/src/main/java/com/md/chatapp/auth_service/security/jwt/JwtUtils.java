@@ -3,14 +3,19 @@ package com.md.chatapp.auth_service.security.jwt;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.MacAlgorithm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.md.chatapp.auth_service.jfr.TokenVerificationEvent;
+import com.md.chatapp.auth_service.model.Role;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.stream.Collectors;
@@ -21,19 +26,44 @@ import java.util.List;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    // Claim names of the compact profile
+    static final String CLAIM_USERNAME = "u";
+    static final String CLAIM_ROLE_MASK = "r";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expirationMs}")
     private int jwtExpirationMs;
 
+    // "standard": username subject, roles as names, HS512. "compact": user id subject,
+    // username in "u", roles as a Role bitmask in "r", signed with app.jwt.compact-algorithm.
+    @Value("${app.jwt.profile:standard}")
+    private String tokenProfile;
+
+    @Value("${app.jwt.compact-algorithm:HS512}")
+    private String compactAlgorithm;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        // Accepts tokens of either profile and any HS algorithm the key is strong enough for
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return signingKey;
     }
 
     public String generateJwtToken(Authentication authentication) {
 
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        if ("compact".equals(tokenProfile) && userPrincipal instanceof UserDetailsImpl userDetails) {
+            return generateCompactToken(userDetails);
+        }
         String username = userPrincipal.getUsername();
 
         Collection<? extends GrantedAuthority> authorities = userPrincipal.getAuthorities();
@@ -41,15 +71,41 @@ public class JwtUtils {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)                         
-                .claim("roles", roles)                
+                .claim("roles", roles);
+        if (userPrincipal instanceof UserDetailsImpl userDetails) {
+            // Numeric id lets other services (e.g. signaling) address users without a DB lookup
+            builder.claim("uid", userDetails.getId());
+        }
+
+        return builder
                 .issuedAt(new Date())                      
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(key(), Jwts.SIG.HS512)           
                 .compact(); 
     }
 
+    private String generateCompactToken(UserDetailsImpl userDetails) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(Long.toString(userDetails.getId()))
+                .claim(CLAIM_USERNAME, userDetails.getUsername())
+                .claim(CLAIM_ROLE_MASK, userDetails.getRoleMask())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + jwtExpirationMs))
+                .signWith(key(), compactMacAlgorithm())
+                .compact();
+    }
+
+    private MacAlgorithm compactMacAlgorithm() {
+        return switch (compactAlgorithm) {
+            case "HS256" -> Jwts.SIG.HS256;
+            case "HS384" -> Jwts.SIG.HS384;
+            default -> Jwts.SIG.HS512;
+        };
+    }
+
      public String generateTokenFromUsername(String username) {
         return Jwts.builder()
                 .subject(username)
@@ -59,33 +115,88 @@ public class JwtUtils {
                 .compact();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verifies the token and extracts its identity in a single parse.
+     * Understands both the standard and the compact profile.
+     *
+     * @return the claims, or null if the token is invalid or expired
+     */
+    public TokenClaims parseToken(String authToken) {
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        Claims claims;
         try {
-            Jwts.parser().verifyWith(key()).build().parseSignedClaims(authToken);
-            // If no exception is thrown, the token is valid (signature, expiration)
-            return true;
+            claims = parser.parseSignedClaims(authToken).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
+            return rejected(event, "MALFORMED");
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
+            return rejected(event, "EXPIRED");
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+            return rejected(event, "MALFORMED");
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+            return rejected(event, "MALFORMED");
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
+            return rejected(event, "BAD_SIGNATURE");
+        } catch (JwtException e) {
+            logger.error("JWT token rejected: {}", e.getMessage());
+            return rejected(event, "REJECTED");
         }
 
-        return false;
+        TokenClaims result;
+        try {
+            String compactUsername = claims.get(CLAIM_USERNAME, String.class);
+            if (compactUsername != null) {
+                Integer roleMask = claims.get(CLAIM_ROLE_MASK, Integer.class);
+                result = new TokenClaims(Long.valueOf(claims.getSubject()), compactUsername, roleMask == null ? 0 : roleMask);
+                event.profile = "compact";
+            } else {
+                Number userId = claims.get("uid", Number.class);
+                result = new TokenClaims(userId == null ? null : userId.longValue(), claims.getSubject(), roleMaskOf(claims));
+                event.profile = "standard";
+            }
+        } catch (NumberFormatException | RequiredTypeException e) {
+            // Correctly signed but not shaped like one of our tokens (e.g. a non-numeric compact subject)
+            logger.error("JWT claims are malformed: {}", e.getMessage());
+            return rejected(event, "MALFORMED");
+        }
+        event.outcome = "VALID";
+        event.commit();
+        return result;
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload(); 
+    private static TokenClaims rejected(TokenVerificationEvent event, String outcome) {
+        event.outcome = outcome;
+        event.commit();
+        return null;
+    }
+
+    private static int roleMaskOf(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        if (roles == null) {
+            return -1;
+        }
+        int mask = 0;
+        for (Object role : roles) {
+            try {
+                mask |= Role.valueOf(String.valueOf(role)).mask();
+            } catch (IllegalArgumentException e) {
+                return -1;
+            }
+        }
+        return mask;
+    }
 
-        return claims.getSubject();
+    public boolean validateJwtToken(String authToken) {
+        return parseToken(authToken) != null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        TokenClaims claims = parseToken(token);
+        return claims == null ? null : claims.username();
     }
 }
@@ -0,0 +1,9 @@
+package com.md.chatapp.auth_service.security.jwt;
+
+/**
+ * Identity carried by a verified access token, whichever profile issued it.
+ * {@code userId} is null for standard tokens minted before the uid claim existed;
+ * {@code roleMask} is -1 when the token carries role names instead of a mask.
+ */
+public record TokenClaims(Long userId, String username, int roleMask) {
+}
@@ -0,0 +1,123 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.mail.MailOutboxService;
+import com.md.chatapp.auth_service.model.TokenPurpose;
+import com.md.chatapp.auth_service.model.User;
+import com.md.chatapp.auth_service.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Email verification and password reset. Both send a single-use link through
+ * the mail outbox; neither endpoint reveals whether an address is registered.
+ * Repeat requests are dropped while the last link is live and younger than
+ * {@code app.tokens.resend-cooldown-minutes}, so an address can't be flooded.
+ * New accounts stay disabled until verified when {@code app.verification.required}
+ * is on.
+ */
+@Service
+public class AccountRecoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountRecoveryService.class);
+
+    private final UserRepository userRepository;
+    private final UserTokenService tokenService;
+    private final MailOutboxService mailOutbox;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean verificationRequired;
+    private final String linkBaseUrl;
+
+    public AccountRecoveryService(UserRepository userRepository, UserTokenService tokenService, MailOutboxService mailOutbox,
+                                  PasswordEncoder passwordEncoder, PlatformTransactionManager transactionManager,
+                                  @Value("${app.verification.required:true}") boolean verificationRequired,
+                                  @Value("${app.mail.link-base-url:http://localhost:3000}") String linkBaseUrl) {
+        this.userRepository = userRepository;
+        this.tokenService = tokenService;
+        this.mailOutbox = mailOutbox;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.verificationRequired = verificationRequired;
+        this.linkBaseUrl = linkBaseUrl;
+    }
+
+    public boolean isVerificationRequired() {
+        return verificationRequired;
+    }
+
+    // Called from the registration transaction, so the user row, token and mail commit together
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void startVerification(User user) {
+        if (!verificationRequired) {
+            return;
+        }
+        String token = tokenService.issue(user.getId(), TokenPurpose.EMAIL_VERIFICATION);
+        mailOutbox.enqueue(user.getEmail(), "Confirm your email address",
+                "Hi " + user.getUsername() + ",\n\n"
+                        + "Confirm your email address to activate your account:\n"
+                        + linkBaseUrl + "/verify-email?token=" + token + "\n\n"
+                        + "If you didn't sign up, you can ignore this email.\n");
+    }
+
+    @Transactional
+    public boolean verifyEmail(String token) {
+        return tokenService.consume(token, TokenPurpose.EMAIL_VERIFICATION)
+                .flatMap(userRepository::findById)
+                .map(user -> {
+                    user.setEnabled(true);
+                    logger.info("Email verified for user id {}", user.getId());
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // Unknown or already-active addresses are ignored silently
+    @Transactional
+    public void resendVerification(String email) {
+        userRepository.findByEmail(email)
+                .filter(user -> !user.isEnabled())
+                .filter(user -> !tokenService.issuedRecently(user.getId(), TokenPurpose.EMAIL_VERIFICATION))
+                .ifPresent(this::startVerification);
+    }
+
+    @Transactional
+    public void requestPasswordReset(String email) {
+        userRepository.findByEmail(email)
+                .filter(user -> !tokenService.issuedRecently(user.getId(), TokenPurpose.PASSWORD_RESET))
+                .ifPresent(user -> {
+                    String token = tokenService.issue(user.getId(), TokenPurpose.PASSWORD_RESET);
+                    mailOutbox.enqueue(user.getEmail(), "Reset your password",
+                            "Hi " + user.getUsername() + ",\n\n"
+                                    + "Use this link to choose a new password:\n"
+                                    + linkBaseUrl + "/reset-password?token=" + token + "\n\n"
+                                    + "The link works once and expires shortly. If you didn't ask for this, ignore this email.\n");
+                });
+    }
+
+    // bcrypt runs before the transaction opens, as in AuthService.tryRegister, but only once
+    // the token is known to be live: an unauthenticated caller must not buy a hash per guess
+    public boolean confirmPasswordReset(String token, String newPassword) {
+        if (!tokenService.isLive(token, TokenPurpose.PASSWORD_RESET)) {
+            return false;
+        }
+        String encoded = passwordEncoder.encode(newPassword);
+        Boolean reset = transactionTemplate.execute(status ->
+                tokenService.consume(token, TokenPurpose.PASSWORD_RESET)
+                        .flatMap(userRepository::findById)
+                        .map(user -> {
+                            user.setPassword(encoded);
+                            user.setCredentialsExpired(false);
+                            logger.info("Password reset for user id {}", user.getId());
+                            return true;
+                        })
+                        .orElse(false));
+        return Boolean.TRUE.equals(reset);
+    }
+}
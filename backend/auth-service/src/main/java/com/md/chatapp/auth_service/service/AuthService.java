@@ -2,19 +2,27 @@ package com.md.chatapp.auth_service.service;
 
 import com.md.chatapp.auth_service.dto.LoginRequest;
 import com.md.chatapp.auth_service.dto.RegisterRequest;
+import com.md.chatapp.auth_service.exception.DatabaseOverloadedException;
+import com.md.chatapp.auth_service.exception.ErrorCode;
+import com.md.chatapp.auth_service.exception.UserAlreadyExistsException;
 import com.md.chatapp.auth_service.model.Role; 
 import com.md.chatapp.auth_service.model.User;
 import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
 import com.md.chatapp.auth_service.security.jwt.JwtUtils;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class AuthService {
@@ -23,37 +31,88 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
-
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager,JwtUtils jwtUtils) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabaseLoadGuard dbGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountRecoveryService accountRecovery;
+
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager,JwtUtils jwtUtils,
+                       ApplicationEventPublisher eventPublisher, DatabaseLoadGuard dbGuard, PlatformTransactionManager transactionManager,
+                       AccountRecoveryService accountRecovery) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
+        this.eventPublisher = eventPublisher;
+        this.dbGuard = dbGuard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountRecovery = accountRecovery;
     }
 
 
-    @Transactional 
     public User registerUser(RegisterRequest registerRequest) {
-        
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            
-            throw new RuntimeException("Error: Username is already taken!");
-            
+        RegistrationOutcome outcome = tryRegister(registerRequest);
+        if (outcome == RegistrationOutcome.OVERLOADED) {
+            throw new DatabaseOverloadedException();
         }
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new RuntimeException("Error: Email is already taken.");
+        if (outcome instanceof RegistrationOutcome.Rejected rejected) {
+            throw new UserAlreadyExistsException(rejected.errorCode());
         }
+        return ((RegistrationOutcome.Registered) outcome).user();
+    }
 
-        User user = new User();
-        user.setUsername(registerRequest.getUsername());
-
-        user.setEmail(registerRequest.getEmail());
-
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
-
-        user.getRoles().add(Role.ROLE_USER);
+    // Conflicts come back as a shared Rejected value; nothing is thrown on the hot rejection path.
+    // Database work goes through the load guard, and bcrypt runs outside any transaction so it
+    // never pins a pooled connection.
+    public RegistrationOutcome tryRegister(RegisterRequest registerRequest) {
+        try {
+            RegistrationOutcome conflict = dbGuard.execute(() -> findConflict(registerRequest));
+            if (conflict != null) {
+                return conflict;
+            }
+
+            User user = new User();
+            user.setUsername(registerRequest.getUsername());
+
+            user.setEmail(registerRequest.getEmail());
+
+            user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+
+            user.addRole(Role.ROLE_USER);
+
+            // Unverified accounts can't log in; the verification mail goes out via the outbox in the same transaction
+            user.setEnabled(!accountRecovery.isVerificationRequired());
+
+            User savedUser;
+            try {
+                savedUser = dbGuard.execute(() -> transactionTemplate.execute(status -> {
+                    User saved = userRepository.save(user);
+                    accountRecovery.startVerification(saved);
+                    eventPublisher.publishEvent(new UserRegisteredEvent(saved.getId(), saved.getUsername(), saved.getEmail()));
+                    return saved;
+                }));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent registration took the name or email after our check; report it the same way
+                RegistrationOutcome raced = dbGuard.execute(() -> findConflict(registerRequest));
+                if (raced == null) {
+                    throw e;
+                }
+                return raced;
+            }
+            return new RegistrationOutcome.Registered(savedUser);
+        } catch (DatabaseOverloadedException e) {
+            return RegistrationOutcome.OVERLOADED;
+        }
+    }
 
-        return userRepository.save(user);
+    private RegistrationOutcome findConflict(RegisterRequest registerRequest) {
+        if (userRepository.existsByUsername(registerRequest.getUsername())) {
+            return RegistrationOutcome.USERNAME_TAKEN;
+        }
+        if (userRepository.existsByEmail(registerRequest.getEmail())) {
+            return RegistrationOutcome.EMAIL_TAKEN;
+        }
+        return null;
     }
 
     public String authenticateAndGenerateToken(LoginRequest loginRequest) {
@@ -70,4 +129,17 @@ public class AuthService {
 
         return jwt;
     }
+
+    public LoginOutcome login(LoginRequest loginRequest) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        } catch (AuthenticationException e) {
+            return LoginOutcome.Failed.of(ErrorCode.fromAuthenticationException(e));
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return new LoginOutcome.Success(jwtUtils.generateJwtToken(authentication), (UserDetailsImpl) authentication.getPrincipal());
+    }
 }
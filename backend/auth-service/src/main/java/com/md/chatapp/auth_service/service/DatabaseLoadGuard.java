@@ -0,0 +1,109 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.exception.DatabaseOverloadedException;
+import com.md.chatapp.auth_service.util.AdaptiveConcurrencyLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for {@link com.md.chatapp.auth_service.repository.UserRepository}
+ * call sites. Wrap each call in {@link #execute}; when the adaptive limit is reached
+ * the call is rejected at once with {@link DatabaseOverloadedException} rather than
+ * joining the queue for a Hikari connection. Callers decide how to degrade: the JWT
+ * filter falls back to the token's claims, login and registration answer 503.
+ *
+ * Only timeouts and connection failures count as drops that shrink the limit;
+ * business failures such as a duplicate-key violation or an unknown user are
+ * ordinary samples.
+ *
+ * The guard reports itself degraded for {@code app.db-guard.degraded-hold-ms} after
+ * the most recent rejection.
+ */
+@Component
+public class DatabaseLoadGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseLoadGuard.class);
+
+    // Stackless and immutable, so one instance can be thrown from every thread
+    private static final DatabaseOverloadedException OVERLOADED = new DatabaseOverloadedException();
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long degradedHoldNanos;
+    private final LongAdder rejected = new LongAdder();
+    private volatile long lastRejectionNanos;
+    private volatile boolean degraded = false;
+
+    public DatabaseLoadGuard(@Value("${app.db-guard.initial-limit:20}") int initialLimit,
+                             @Value("${app.db-guard.min-limit:2}") int minLimit,
+                             @Value("${app.db-guard.max-limit:200}") int maxLimit,
+                             @Value("${app.db-guard.degraded-hold-ms:5000}") long degradedHoldMs) {
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, 1.5);
+        this.degradedHoldNanos = TimeUnit.MILLISECONDS.toNanos(degradedHoldMs);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            lastRejectionNanos = System.nanoTime();
+            if (!degraded) {
+                degraded = true;
+                logger.warn("User database saturated (limit {}); shedding load", limiter.getLimit());
+            }
+            throw OVERLOADED;
+        }
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            dropped = isOverloadSignal(e);
+            throw e;
+        } catch (Error e) {
+            dropped = true;
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    // QueryTimeoutException and pool timeouts are TransientDataAccessExceptions; JPA may wrap them
+    static boolean isOverloadSignal(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof DataAccessResourceFailureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isDegraded() {
+        if (degraded && System.nanoTime() - lastRejectionNanos > degradedHoldNanos) {
+            degraded = false;
+            logger.info("User database recovered (limit {}); leaving degraded mode", limiter.getLimit());
+        }
+        return degraded;
+    }
+
+    public int getLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,32 @@
+package com.md.chatapp.auth_service.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes {@link DatabaseLoadGuard} as the "databaseLoad" health component. Shedding
+ * is reported as {@code degraded: true} under an UP status: the service is still
+ * answering (tokens are trusted on their claims), so it should stay in rotation,
+ * and a custom status would need matching {@code management.endpoint.health.status.*}
+ * settings to show up in the aggregate at all.
+ */
+@Component
+public class DatabaseLoadHealthIndicator implements HealthIndicator {
+
+    private final DatabaseLoadGuard guard;
+
+    public DatabaseLoadHealthIndicator(DatabaseLoadGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("degraded", guard.isDegraded())
+                .withDetail("concurrencyLimit", guard.getLimit())
+                .withDetail("inFlight", guard.getInFlight())
+                .withDetail("rejected", guard.getRejected())
+                .build();
+    }
+}
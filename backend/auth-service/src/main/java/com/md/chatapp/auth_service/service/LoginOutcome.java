@@ -0,0 +1,31 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.exception.ErrorCode;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Result of {@link AuthService#login}: a token and principal, or the error code to report.
+ */
+public sealed interface LoginOutcome {
+
+    record Success(String jwt, UserDetailsImpl principal) implements LoginOutcome {
+    }
+
+    record Failed(ErrorCode errorCode) implements LoginOutcome {
+
+        private static final Map<ErrorCode, Failed> SHARED = new EnumMap<>(ErrorCode.class);
+
+        static {
+            for (ErrorCode code : ErrorCode.values()) {
+                SHARED.put(code, new Failed(code));
+            }
+        }
+
+        public static Failed of(ErrorCode errorCode) {
+            return SHARED.get(errorCode);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.util.PresenceTracker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Online presence for chat and video calls. Clients heartbeat while connected;
+ * a user counts as online until {@code app.presence.ttl-seconds} pass without one.
+ */
+@Service
+public class PresenceService {
+
+    private final PresenceTracker tracker;
+
+    public PresenceService(@Value("${app.presence.ttl-seconds:30}") long ttlSeconds,
+                           @Value("${app.presence.shards:64}") int shards) {
+        this.tracker = new PresenceTracker(shards, TimeUnit.SECONDS.toNanos(ttlSeconds),
+                TimeUnit.SECONDS.toNanos(1), System::nanoTime);
+    }
+
+    public void heartbeat(Long userId) {
+        tracker.heartbeat(userId);
+    }
+
+    public void markOffline(Long userId) {
+        tracker.remove(userId);
+    }
+
+    public long[] filterOnline(long[] userIds) {
+        return tracker.filterOnline(userIds);
+    }
+
+    public int onlineCount() {
+        return tracker.onlineCount();
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void expireStale() {
+        tracker.advance();
+    }
+}
@@ -0,0 +1,21 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.exception.ErrorCode;
+import com.md.chatapp.auth_service.model.User;
+
+/**
+ * Result of {@link AuthService#tryRegister}. Conflicts are ordinary results,
+ * not exceptions, and the rejected instances are shared constants.
+ */
+public sealed interface RegistrationOutcome {
+
+    Rejected USERNAME_TAKEN = new Rejected(ErrorCode.USERNAME_TAKEN);
+    Rejected EMAIL_TAKEN = new Rejected(ErrorCode.EMAIL_TAKEN);
+    Rejected OVERLOADED = new Rejected(ErrorCode.SERVICE_OVERLOADED);
+
+    record Registered(User user) implements RegistrationOutcome {
+    }
+
+    record Rejected(ErrorCode errorCode) implements RegistrationOutcome {
+    }
+}
@@ -1,8 +1,9 @@
 package com.md.chatapp.auth_service.service;
 
-import com.md.chatapp.auth_service.model.User;
-import com.md.chatapp.auth_service.security.UserDetailsImpl;
+import com.md.chatapp.auth_service.exception.DatabaseOverloadedException;
+import com.md.chatapp.auth_service.jfr.PrincipalLoadEvent;
 import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -10,8 +11,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -19,14 +20,16 @@ import java.util.stream.Collectors;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final DatabaseLoadGuard dbGuard;
 
     @Autowired
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, DatabaseLoadGuard dbGuard) {
         this.userRepository = userRepository;
+        this.dbGuard = dbGuard;
     }
 
+    // No surrounding transaction: it would take a pooled connection before the guard gets a say
     @Override
-    @Transactional(readOnly = true) 
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         //User user = userRepository.findByUsername(username)
         //        .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
@@ -35,10 +38,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         //        .map(role -> new SimpleGrantedAuthority(role.name())) 
         //        .collect(Collectors.toSet());
 
-        User user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail) // Pass the identifier for both checks
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username or email: " + usernameOrEmail));
-
-        return new UserDetailsImpl(user);
+        PrincipalLoadEvent event = new PrincipalLoadEvent();
+        event.begin();
+        event.outcome = "ERROR";
+        try {
+            Optional<UserDetailsImpl> principal = dbGuard.execute(() -> userRepository.findPrincipalByUsernameOrEmail(usernameOrEmail)); // Matches the identifier against username and email
+            event.outcome = principal.isPresent() ? "FOUND" : "NOT_FOUND";
+            return principal
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username or email: " + usernameOrEmail));
+        } catch (DatabaseOverloadedException e) {
+            event.outcome = "SHED";
+            throw e;
+        } finally {
+            event.commit();
+        }
 
         //return new org.springframework.security.core.userdetails.User(
         //        user.getUsername(),
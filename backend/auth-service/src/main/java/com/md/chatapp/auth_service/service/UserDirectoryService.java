@@ -0,0 +1,63 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.util.TrigramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Contact search over usernames, served from an in-memory {@link TrigramIndex}
+ * so the chat UI never triggers {@code LIKE '%x%'} scans of app_users.
+ */
+@Service
+public class UserDirectoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryService.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TrigramIndex index;
+    private final int maxResults;
+
+    public UserDirectoryService(UserRepository userRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.directory.expected-users:100000}") int expectedUsers,
+                                @Value("${app.directory.max-candidates:5000}") int maxCandidates,
+                                @Value("${app.directory.max-results:50}") int maxResults) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.index = new TrigramIndex(expectedUsers, maxCandidates);
+        this.maxResults = maxResults;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        long start = System.nanoTime();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = userRepository.streamIdsAndUsernames()) {
+                rows.forEach(row -> index.put((Long) row[0], (String) row[1]));
+            }
+        });
+        logger.info("User directory index loaded {} users in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        index.put(event.userId(), event.username());
+    }
+
+    public List<TrigramIndex.Match> search(String query, int limit) {
+        return index.search(query, Math.min(limit, maxResults));
+    }
+}
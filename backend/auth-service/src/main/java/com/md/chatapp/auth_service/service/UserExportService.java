@@ -0,0 +1,183 @@
+package com.md.chatapp.auth_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.md.chatapp.auth_service.dto.UserExportRow;
+import com.md.chatapp.auth_service.model.Role;
+import com.md.chatapp.auth_service.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams the whole user table to an OutputStream in constant memory. Rows are read
+ * with keyset pagination ({@code id > last order by id limit n}) as unmanaged DTO
+ * projections, outside any transaction, so the persistence context never accumulates
+ * entities and no page holds a connection while the client is being written to.
+ * At most one page is on the heap at a time.
+ */
+@Service
+public class UserExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String CSV_HEADER =
+            "id,username,email,roles,enabled,account_locked,account_expired,credentials_expired\n";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final int pageSize;
+
+    public UserExportService(UserRepository userRepository,
+                             @Value("${app.export.page-size:1000}") int pageSize) {
+        this.userRepository = userRepository;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Writes every user to {@code out}, flushing after each page so the client sees
+     * steady progress. The stream is flushed but not closed.
+     *
+     * @return number of users written
+     */
+    public long export(Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = JSON.createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+        } else {
+            writer.write(CSV_HEADER);
+        }
+
+        long written = 0;
+        long afterId = 0;
+        List<UserExportRow> page;
+        do {
+            page = userRepository.findExportPage(afterId, Limit.of(pageSize));
+            for (UserExportRow row : page) {
+                if (json != null) {
+                    writeJson(json, row);
+                } else {
+                    writeCsv(writer, row);
+                }
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+                written += page.size();
+            }
+            if (json != null) {
+                json.flush();
+            }
+            writer.flush();
+        } while (page.size() == pageSize);
+
+        if (json != null) {
+            json.close();
+        }
+        writer.flush();
+        logger.info("Exported {} users as {} in {} ms", written, format, (System.nanoTime() - start) / 1_000_000);
+        return written;
+    }
+
+    private static void writeJson(JsonGenerator json, UserExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.getId());
+        json.writeStringField("username", row.getUsername());
+        json.writeStringField("email", row.getEmail());
+        json.writeArrayFieldStart("roles");
+        for (Role role : Role.values()) {
+            if ((row.getRoleMask() & role.mask()) != 0) {
+                json.writeString(role.name());
+            }
+        }
+        json.writeEndArray();
+        json.writeBooleanField("enabled", row.isEnabled());
+        json.writeBooleanField("accountLocked", row.isAccountLocked());
+        json.writeBooleanField("accountExpired", row.isAccountExpired());
+        json.writeBooleanField("credentialsExpired", row.isCredentialsExpired());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsv(Writer writer, UserExportRow row) throws IOException {
+        writer.write(Long.toString(row.getId()));
+        writer.write(',');
+        writeCsvField(writer, row.getUsername());
+        writer.write(',');
+        writeCsvField(writer, row.getEmail());
+        writer.write(',');
+        boolean first = true;
+        for (Role role : Role.values()) {
+            if ((row.getRoleMask() & role.mask()) != 0) {
+                if (!first) {
+                    writer.write('|');
+                }
+                writer.write(role.name());
+                first = false;
+            }
+        }
+        writer.write(',');
+        writer.write(Boolean.toString(row.isEnabled()));
+        writer.write(',');
+        writer.write(Boolean.toString(row.isAccountLocked()));
+        writer.write(',');
+        writer.write(Boolean.toString(row.isAccountExpired()));
+        writer.write(',');
+        writer.write(Boolean.toString(row.isCredentialsExpired()));
+        writer.write('\n');
+    }
+
+    // RFC 4180 quoting, plus a leading quote mark for values a spreadsheet would treat as a formula
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean formula = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0;
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
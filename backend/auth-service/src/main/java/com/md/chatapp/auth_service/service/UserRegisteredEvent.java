@@ -0,0 +1,8 @@
+package com.md.chatapp.auth_service.service;
+
+/**
+ * Published by {@link AuthService} once a new user has been saved, so in-memory
+ * indexes over the user table can be kept current without re-reading it.
+ */
+public record UserRegisteredEvent(Long userId, String username, String email) {
+}
@@ -0,0 +1,100 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.model.TokenPurpose;
+import com.md.chatapp.auth_service.model.UserToken;
+import com.md.chatapp.auth_service.repository.UserTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Issues and redeems single-use account tokens (email verification, password
+ * reset). The raw token only ever exists in the email; the table holds its
+ * SHA-256, so a leaked table can't be used to take over accounts. The token
+ * has 256 bits of entropy, which is why a fast unsalted hash is enough here.
+ */
+@Service
+public class UserTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final UserTokenRepository tokenRepository;
+    private final SecureRandom random = new SecureRandom();
+    private final Duration verificationTtl;
+    private final Duration resetTtl;
+    private final Duration resendCooldown;
+
+    public UserTokenService(UserTokenRepository tokenRepository,
+                            @Value("${app.tokens.verification-ttl-minutes:1440}") long verificationTtlMinutes,
+                            @Value("${app.tokens.reset-ttl-minutes:30}") long resetTtlMinutes,
+                            @Value("${app.tokens.resend-cooldown-minutes:5}") long resendCooldownMinutes) {
+        this.tokenRepository = tokenRepository;
+        this.verificationTtl = Duration.ofMinutes(verificationTtlMinutes);
+        this.resetTtl = Duration.ofMinutes(resetTtlMinutes);
+        this.resendCooldown = Duration.ofMinutes(resendCooldownMinutes);
+    }
+
+    // Retires any outstanding token of the same purpose, so only the newest link works
+    @Transactional
+    public String issue(Long userId, TokenPurpose purpose) {
+        Instant now = Instant.now();
+        tokenRepository.retireActive(userId, purpose, now);
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        UserToken token = new UserToken();
+        token.setUserId(userId);
+        token.setPurpose(purpose);
+        token.setTokenHash(hash(rawToken));
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plus(purpose == TokenPurpose.PASSWORD_RESET ? resetTtl : verificationTtl));
+        tokenRepository.save(token);
+        return rawToken;
+    }
+
+    // True while the user's newest link for this purpose is still usable and younger than the cooldown
+    @Transactional(readOnly = true)
+    public boolean issuedRecently(Long userId, TokenPurpose purpose) {
+        Instant now = Instant.now();
+        return tokenRepository.existsByUserIdAndPurposeAndUsedAtIsNullAndExpiresAtAfterAndCreatedAtAfter(
+                userId, purpose, now, now.minus(resendCooldown));
+    }
+
+    // Read-only check, so callers can skip expensive work for tokens that could never be redeemed
+    @Transactional(readOnly = true)
+    public boolean isLive(String rawToken, TokenPurpose purpose) {
+        Instant now = Instant.now();
+        return tokenRepository.findByTokenHashAndPurpose(hash(rawToken), purpose)
+                .filter(token -> token.getUsedAt() == null && token.getExpiresAt().isAfter(now))
+                .isPresent();
+    }
+
+    // Returns the owning user id if the token was live, and burns it in the same step
+    @Transactional
+    public Optional<Long> consume(String rawToken, TokenPurpose purpose) {
+        return tokenRepository.findByTokenHashAndPurpose(hash(rawToken), purpose)
+                .filter(token -> tokenRepository.markUsed(token.getId(), Instant.now()) == 1)
+                .map(UserToken::getUserId);
+    }
+
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Answers "is this username / email taken?" for the registration form without a
+ * database round trip in the common case. Normalized usernames and emails are
+ * kept in two Bloom filters: a miss means the value is definitely free, a hit
+ * ("possibly taken") falls through to {@link UserRepository}.
+ *
+ * Sizing: with the defaults (1% false positives, k = 7) each filter needs about
+ * 9.6 bits per entry, so a 10M-user table costs roughly 11.4 MiB per filter and
+ * about 23 MiB for both.
+ */
+@Service
+public class UsernameAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameAvailabilityService.class);
+
+    private final UserRepository userRepository;
+    private final DatabaseLoadGuard dbGuard;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedUsers;
+
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private volatile boolean loaded = false;
+
+    private final AtomicLong indexedUsers = new AtomicLong();
+    private final AtomicLong databaseChecks = new AtomicLong();
+
+    public UsernameAvailabilityService(UserRepository userRepository,
+                                       DatabaseLoadGuard dbGuard,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.availability.expected-users:1000000}") long expectedUsers,
+                                       @Value("${app.availability.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.dbGuard = dbGuard;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedUsers = expectedUsers;
+        // Created up front so registrations that commit while the table is streaming are not lost
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        long start = System.nanoTime();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = userRepository.streamUsernamesAndEmails()) {
+                rows.forEach(row -> index((String) row[0], (String) row[1]));
+            }
+        });
+        loaded = true;
+
+        long users = indexedUsers.get();
+        logger.info("Availability index loaded {} users in {} ms: {} KiB per filter, k={}, expected false-positive rate {}",
+                users, (System.nanoTime() - start) / 1_000_000, usernames.sizeInBytes() / 1024,
+                usernames.hashFunctions(), String.format("%.4f", usernames.expectedFalsePositiveProbability(users)));
+        if (users > expectedUsers) {
+            logger.warn("Availability index holds {} users but is sized for {}; raise app.availability.expected-users",
+                    users, expectedUsers);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        index(event.username(), event.email());
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        if (loaded && !usernames.mightContain(normalize(username))) {
+            return true;
+        }
+        databaseChecks.incrementAndGet();
+        return !dbGuard.execute(() -> userRepository.existsByUsername(username.trim()));
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (loaded && !emails.mightContain(normalize(email))) {
+            return true;
+        }
+        databaseChecks.incrementAndGet();
+        return !dbGuard.execute(() -> userRepository.existsByEmail(email.trim()));
+    }
+
+    public long getIndexedUsers() {
+        return indexedUsers.get();
+    }
+
+    public long getDatabaseChecks() {
+        return databaseChecks.get();
+    }
+
+    private void index(String username, String email) {
+        if (username != null) {
+            usernames.put(normalize(username));
+        }
+        if (email != null) {
+            emails.put(normalize(email));
+        }
+        indexedUsers.incrementAndGet();
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
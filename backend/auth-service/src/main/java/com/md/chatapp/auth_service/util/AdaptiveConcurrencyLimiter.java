@@ -0,0 +1,110 @@
+package com.md.chatapp.auth_service.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to observed latency, in the spirit of TCP Vegas /
+ * Netflix's gradient limiter. Two moving averages of call latency are kept: a
+ * fast one tracking current conditions and a slow one acting as the baseline.
+ * While the fast average stays within {@code tolerance} of the baseline the limit
+ * grows by about sqrt(limit) per sample; once it rises above that, the limit is
+ * scaled down by the ratio (at most halved per sample, smoothed). Failed calls
+ * back the limit off multiplicatively.
+ *
+ * {@link #tryAcquire()} never blocks: callers over the limit are turned away
+ * immediately instead of queueing behind a slow dependency.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private static final double FAST_ALPHA = 0.2;
+    private static final double SLOW_ALPHA = 0.001;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double fastRtt;
+    private double slowRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Require 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (tolerance < 1.0) {
+            throw new IllegalArgumentException("tolerance must be >= 1.0");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * @return true if the caller may proceed; it must then call {@link #release} exactly once
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos how long the guarded call took
+     * @param dropped  true if the call failed (timeout, connection error), which forces a back-off
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (dropped) {
+                estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+                limit = (int) estimatedLimit;
+                return;
+            }
+
+            if (slowRtt == 0) {
+                fastRtt = rttNanos;
+                slowRtt = rttNanos;
+            } else {
+                fastRtt += (rttNanos - fastRtt) * FAST_ALPHA;
+                slowRtt += (rttNanos - slowRtt) * SLOW_ALPHA;
+            }
+            // After a slow period the baseline is inflated; let it drift back once latency recovers
+            if (slowRtt > 2 * fastRtt) {
+                slowRtt *= 0.95;
+            }
+
+            // Don't grow a limit the callers aren't actually using
+            if (inFlightAtRelease < estimatedLimit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * slowRtt / fastRtt));
+            double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            estimatedLimit = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,245 @@
+package com.md.chatapp.auth_service.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks which users are online from periodic heartbeats.
+ *
+ * State is split across power-of-two shards, each guarded by its own lock.
+ * A shard keeps users in parallel primitive arrays indexed by slot, with a
+ * {@link LongIntHashMap} from user id to slot, so a heartbeat for a known user
+ * allocates nothing. Expiry uses a hashed timer wheel: every slot is linked
+ * (intrusively, through int next/prev arrays) into the wheel bucket of the
+ * tick at which it expires. A heartbeat moves the slot to a later bucket in
+ * O(1); {@link #advance()} drops everything in the buckets that have come due.
+ */
+public class PresenceTracker {
+
+    private static final int NONE = -1;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final long ttlTicks;
+    private final int wheelMask;
+    private final LongSupplier clock;
+    private final long tickNanos;
+
+    /**
+     * @param shardCount     number of shards, rounded up to a power of two
+     * @param ttlNanos       how long a user stays online after a heartbeat
+     * @param tickNanos      timer wheel resolution
+     * @param clock          nanosecond time source ({@code System::nanoTime} in production)
+     */
+    public PresenceTracker(int shardCount, long ttlNanos, long tickNanos, LongSupplier clock) {
+        int shardsRounded = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Shard[shardsRounded];
+        this.shardMask = shardsRounded - 1;
+        this.tickNanos = tickNanos;
+        this.ttlTicks = Math.max(1, (ttlNanos + tickNanos - 1) / tickNanos);
+        // One bucket per tick of the TTL plus one, so an expiry never wraps onto the current bucket
+        int wheelSize = Integer.highestOneBit((int) ttlTicks) << 1;
+        this.wheelMask = wheelSize - 1;
+        this.clock = clock;
+        long now = currentTick();
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(wheelSize, now);
+        }
+    }
+
+    public void heartbeat(long userId) {
+        shardFor(userId).touch(userId, currentTick() + ttlTicks);
+    }
+
+    public void remove(long userId) {
+        shardFor(userId).remove(userId);
+    }
+
+    public boolean isOnline(long userId) {
+        return shardFor(userId).isOnline(userId, currentTick());
+    }
+
+    /** Returns the subset of {@code userIds} that is online, in the order given. */
+    public long[] filterOnline(long[] userIds) {
+        long now = currentTick();
+        long[] online = new long[userIds.length];
+        int count = 0;
+        for (long userId : userIds) {
+            if (shardFor(userId).isOnline(userId, now)) {
+                online[count++] = userId;
+            }
+        }
+        return count == online.length ? online : Arrays.copyOf(online, count);
+    }
+
+    /** Expires every user whose TTL has elapsed; call at least once per tick. */
+    public int advance() {
+        long now = currentTick();
+        int expired = 0;
+        for (Shard shard : shards) {
+            expired += shard.advanceTo(now);
+        }
+        return expired;
+    }
+
+    public int onlineCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    private long currentTick() {
+        return clock.getAsLong() / tickNanos;
+    }
+
+    private Shard shardFor(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return shards[(int) (h >>> 40) & shardMask];
+    }
+
+    private final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongIntHashMap slotByUser = new LongIntHashMap(64);
+        private final int[] wheel;
+        private long processedTick;
+
+        private long[] userIds = new long[64];
+        private long[] expiresAt = new long[64];
+        private int[] next = new int[64];
+        private int[] prev = new int[64];
+        private int used;
+        private int freeHead = NONE;
+
+        Shard(int wheelSize, long startTick) {
+            this.wheel = new int[wheelSize];
+            Arrays.fill(wheel, NONE);
+            this.processedTick = startTick;
+        }
+
+        void touch(long userId, long expiryTick) {
+            lock.lock();
+            try {
+                int slot = slotByUser.get(userId);
+                if (slot == LongIntHashMap.MISSING) {
+                    slot = allocate();
+                    userIds[slot] = userId;
+                    slotByUser.put(userId, slot);
+                } else if (expiresAt[slot] == expiryTick) {
+                    return;
+                } else {
+                    unlink(slot);
+                }
+                expiresAt[slot] = expiryTick;
+                link(slot, (int) (expiryTick & wheelMask));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(long userId) {
+            lock.lock();
+            try {
+                int slot = slotByUser.remove(userId);
+                if (slot != LongIntHashMap.MISSING) {
+                    unlink(slot);
+                    release(slot);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isOnline(long userId, long now) {
+            lock.lock();
+            try {
+                int slot = slotByUser.get(userId);
+                return slot != LongIntHashMap.MISSING && expiresAt[slot] > now;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int advanceTo(long now) {
+            lock.lock();
+            try {
+                int expired = 0;
+                // Bounded by the wheel size: after a full turn every bucket has been visited
+                long from = Math.max(processedTick + 1, now - wheelMask);
+                for (long tick = from; tick <= now; tick++) {
+                    int bucket = (int) (tick & wheelMask);
+                    int slot = wheel[bucket];
+                    while (slot != NONE) {
+                        int following = next[slot];
+                        if (expiresAt[slot] <= now) {
+                            unlink(slot);
+                            slotByUser.remove(userIds[slot]);
+                            release(slot);
+                            expired++;
+                        }
+                        slot = following;
+                    }
+                }
+                processedTick = Math.max(processedTick, now);
+                return expired;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return slotByUser.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int allocate() {
+            if (freeHead != NONE) {
+                int slot = freeHead;
+                freeHead = next[slot];
+                return slot;
+            }
+            if (used == userIds.length) {
+                int capacity = used << 1;
+                userIds = Arrays.copyOf(userIds, capacity);
+                expiresAt = Arrays.copyOf(expiresAt, capacity);
+                next = Arrays.copyOf(next, capacity);
+                prev = Arrays.copyOf(prev, capacity);
+            }
+            return used++;
+        }
+
+        private void release(int slot) {
+            next[slot] = freeHead;
+            freeHead = slot;
+        }
+
+        private void link(int slot, int bucket) {
+            int head = wheel[bucket];
+            next[slot] = head;
+            prev[slot] = NONE;
+            if (head != NONE) {
+                prev[head] = slot;
+            }
+            wheel[bucket] = slot;
+        }
+
+        private void unlink(int slot) {
+            int before = prev[slot];
+            int after = next[slot];
+            if (before != NONE) {
+                next[before] = after;
+            } else {
+                wheel[(int) (expiresAt[slot] & wheelMask)] = after;
+            }
+            if (after != NONE) {
+                prev[after] = before;
+            }
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.md.chatapp.auth_service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix/substring index over user names.
+ *
+ * Every name is lower-cased and split into character trigrams, padded with a
+ * start marker so that one- and two-character prefixes are indexed as well.
+ * Each trigram maps to a sorted {@code int[]} posting list of dense document
+ * ids; user ids live in a parallel {@code long[]}. Queries of three or more
+ * characters intersect the trigram lists and verify candidates with
+ * {@link String#contains}; shorter queries are prefix-only and are answered
+ * from per-prefix lists bucketed by name length, which hold documents already
+ * in rank order, so the first keystroke of a search reads only about
+ * {@code limit} documents however many names share that letter.
+ *
+ * Documents are append-only: re-indexing a user tombstones the old document.
+ * Readers share a read lock, so writes (registrations) are brief and rare.
+ */
+public class TrigramIndex {
+
+    private static final char START = '\u0001';
+    private static final int INITIAL_POSTINGS = 4;
+
+    public record Match(long userId, String username) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxCandidates;
+
+    // document id -> user
+    private long[] userIds;
+    private String[] names;
+    private String[] normalizedNames;
+    // Kept apart from the strings so ranking a pure prefix hit never dereferences one
+    private int[] nameLengths;
+    private int documents;
+    private final BitSet deleted = new BitSet();
+    private final LongIntHashMap documentByUserId;
+
+    // trigram -> posting list slot
+    private final LongIntHashMap slotByGram;
+    private int[][] postings;
+    private int[] postingSizes;
+    private int slots;
+
+    // one- or two-character prefix gram -> documents bucketed by name length
+    private final LongIntHashMap shortPrefixSlotByGram;
+    private LengthBuckets[] shortPrefixes;
+
+    /**
+     * @param expectedUsers initial capacity hint
+     * @param maxCandidates substring (non-prefix) matches to rank before a query stops
+     *                      scanning, which bounds the cost of very unselective queries;
+     *                      exact and prefix matches are never capped
+     */
+    public TrigramIndex(int expectedUsers, int maxCandidates) {
+        int capacity = Math.max(16, expectedUsers);
+        this.maxCandidates = maxCandidates;
+        this.userIds = new long[capacity];
+        this.names = new String[capacity];
+        this.normalizedNames = new String[capacity];
+        this.nameLengths = new int[capacity];
+        this.documentByUserId = new LongIntHashMap(capacity);
+        this.slotByGram = new LongIntHashMap(1 << 16);
+        this.postings = new int[1 << 12][];
+        this.postingSizes = new int[1 << 12];
+        this.shortPrefixSlotByGram = new LongIntHashMap(1 << 12);
+        this.shortPrefixes = new LengthBuckets[1 << 10];
+    }
+
+    /** Indexes {@code username} for {@code userId}, replacing any previous name. */
+    public void put(long userId, String username) {
+        String normalized = normalize(username);
+        lock.writeLock().lock();
+        try {
+            int previous = documentByUserId.get(userId);
+            if (previous != LongIntHashMap.MISSING) {
+                if (!deleted.get(previous) && names[previous].equals(username)) {
+                    return;
+                }
+                deleted.set(previous);
+            }
+
+            int document = documents++;
+            if (document == userIds.length) {
+                int capacity = userIds.length << 1;
+                userIds = Arrays.copyOf(userIds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                normalizedNames = Arrays.copyOf(normalizedNames, capacity);
+                nameLengths = Arrays.copyOf(nameLengths, capacity);
+            }
+            userIds[document] = userId;
+            names[document] = username;
+            normalizedNames[document] = normalized;
+            nameLengths[document] = normalized.length();
+            documentByUserId.put(userId, document);
+
+            String padded = "" + START + START + normalized;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                long gram = gram(padded, i);
+                // Repeated trigrams ("abcabc") must not append the same document twice
+                if (!endsWith(gram, document)) {
+                    append(gram, document);
+                }
+                // The first two grams are the one- and two-character prefixes
+                if (i < 2) {
+                    shortPrefix(gram).add(normalized.length(), document);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            int document = documentByUserId.get(userId);
+            if (document != LongIntHashMap.MISSING) {
+                deleted.set(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} users whose name contains {@code query}
+     * (or starts with it, for one- and two-character queries), ranked exact
+     * match first, then prefix matches, then other substring matches; shorter
+     * names first within each group.
+     */
+    public List<Match> search(String query, int limit) {
+        return search(query, limit, new int[1]);
+    }
+
+    // Adds the number of documents the query looked at to visited[0]
+    List<Match> search(String query, int limit, int[] visited) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Prefix grams: the start-padded query, trimmed to its last trigram for short queries
+        String prefix = "" + START + START + normalized;
+        if (normalized.length() < 3) {
+            prefix = prefix.substring(normalized.length() - 1);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (normalized.length() < 3) {
+                return shortPrefixMatches(gram(prefix, 0), normalized.length(), limit, visited);
+            }
+            // Max-heap on rank so the worst of the current top-k is evicted first
+            PriorityQueue<long[]> top = new PriorityQueue<>(limit + 1,
+                    Comparator.<long[]>comparingLong(entry -> entry[0]).reversed());
+            // Exact and prefix matches are always scanned in full, so a late registration
+            // named exactly like the query still outranks earlier substring hits; with three
+            // or more characters the intersected lists keep that scan selective
+            collect(prefix, normalized, true, Integer.MAX_VALUE, top, limit, visited);
+            // Substring-only matches rank below every prefix match: only needed while
+            // the top-k has room, and capped since unselective queries have many of them
+            if (top.size() < limit) {
+                collect(normalized, normalized, false, maxCandidates, top, limit, visited);
+            }
+
+            Match[] matches = new Match[top.size()];
+            for (int i = matches.length - 1; i >= 0; i--) {
+                int document = (int) top.poll()[1];
+                matches[i] = new Match(userIds[document], names[document]);
+            }
+            return Arrays.asList(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Buckets are walked shortest name first and each bucket is in insertion order, which
+    // is exactly rank order, so the first limit live documents are the answer
+    private List<Match> shortPrefixMatches(long gram, int queryLength, int limit, int[] visited) {
+        int slot = shortPrefixSlotByGram.get(gram);
+        if (slot == LongIntHashMap.MISSING) {
+            return List.of();
+        }
+        LengthBuckets buckets = shortPrefixes[slot];
+        List<Match> matches = new ArrayList<>(limit);
+        for (int length = queryLength; length < buckets.documents.length && matches.size() < limit; length++) {
+            int[] bucket = buckets.documents[length];
+            for (int i = 0; i < buckets.sizes[length] && matches.size() < limit; i++) {
+                visited[0]++;
+                int document = bucket[i];
+                if (!deleted.get(document)) {
+                    matches.add(new Match(userIds[document], names[document]));
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Intersects the posting lists of every trigram of padded, verifies each candidate
+    // and offers it to the top-k heap; stops after cap verified matches
+    private void collect(String padded, String normalized, boolean prefixes, int cap,
+                         PriorityQueue<long[]> top, int limit, int[] visited) {
+        int gramCount = padded.length() - 2;
+        int[][] lists = new int[gramCount][];
+        int[] sizes = new int[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            int slot = slotByGram.get(gram(padded, i));
+            if (slot == LongIntHashMap.MISSING) {
+                return;
+            }
+            lists[i] = postings[slot];
+            sizes[i] = postingSizes[slot];
+        }
+        sortBySize(lists, sizes);
+
+        int[] cursors = new int[gramCount];
+        int verified = 0;
+        int[] driver = lists[0];
+        for (int i = 0; i < sizes[0] && verified < cap; i++) {
+            visited[0]++;
+            int document = driver[i];
+            if (deleted.get(document) || !inAll(document, lists, sizes, cursors)) {
+                continue;
+            }
+            String candidate = normalizedNames[document];
+            // Each document belongs to exactly one pass: prefix matches are never re-counted
+            int position = candidate.startsWith(normalized) ? 0 : prefixes ? -1 : candidate.indexOf(normalized);
+            if (position < 0 || (position == 0) != prefixes) {
+                continue;
+            }
+            verified++;
+            long rank = rank(nameLengths[document], normalized.length(), position, document);
+            if (top.size() < limit) {
+                top.add(new long[] {rank, document});
+            } else if (rank < top.peek()[0]) {
+                top.poll();
+                top.add(new long[] {rank, document});
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents - deleted.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void append(long gram, int document) {
+        int slot = slotByGram.get(gram);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = slots++;
+            if (slot == postings.length) {
+                postings = Arrays.copyOf(postings, slot << 1);
+                postingSizes = Arrays.copyOf(postingSizes, slot << 1);
+            }
+            postings[slot] = new int[INITIAL_POSTINGS];
+            slotByGram.put(gram, slot);
+        }
+        int size = postingSizes[slot];
+        if (size == postings[slot].length) {
+            postings[slot] = Arrays.copyOf(postings[slot], size + (size >> 1) + 1);
+        }
+        postings[slot][size] = document;
+        postingSizes[slot] = size + 1;
+    }
+
+    private LengthBuckets shortPrefix(long gram) {
+        int slot = shortPrefixSlotByGram.get(gram);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = shortPrefixSlotByGram.size();
+            if (slot == shortPrefixes.length) {
+                shortPrefixes = Arrays.copyOf(shortPrefixes, slot << 1);
+            }
+            shortPrefixes[slot] = new LengthBuckets();
+            shortPrefixSlotByGram.put(gram, slot);
+        }
+        return shortPrefixes[slot];
+    }
+
+    private boolean endsWith(long gram, int document) {
+        int slot = slotByGram.get(gram);
+        return slot != LongIntHashMap.MISSING && postings[slot][postingSizes[slot] - 1] == document;
+    }
+
+    // Posting lists are ascending, so each cursor only ever moves forward
+    private static boolean inAll(int document, int[][] lists, int[] sizes, int[] cursors) {
+        for (int j = 1; j < lists.length; j++) {
+            int cursor = cursors[j];
+            int[] list = lists[j];
+            while (cursor < sizes[j] && list[cursor] < document) {
+                cursor++;
+            }
+            cursors[j] = cursor;
+            if (cursor == sizes[j] || list[cursor] != document) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lower is better: match kind, then name length, then insertion order
+    private static long rank(int candidateLength, int queryLength, int position, int document) {
+        long kind = candidateLength == queryLength ? 0 : position == 0 ? 1 : 2;
+        long length = Math.min(candidateLength, 0xFFFF);
+        return (kind << 56) | (length << 32) | document;
+    }
+
+    private static void sortBySize(int[][] lists, int[] sizes) {
+        for (int i = 1; i < lists.length; i++) {
+            for (int j = i; j > 0 && sizes[j] < sizes[j - 1]; j--) {
+                int[] list = lists[j];
+                lists[j] = lists[j - 1];
+                lists[j - 1] = list;
+                int size = sizes[j];
+                sizes[j] = sizes[j - 1];
+                sizes[j - 1] = size;
+            }
+        }
+    }
+
+    // Ascending document lists indexed by normalized name length
+    private static final class LengthBuckets {
+        private int[][] documents = new int[16][];
+        private int[] sizes = new int[16];
+
+        void add(int length, int document) {
+            if (length >= documents.length) {
+                int capacity = Math.max(length + 1, documents.length << 1);
+                documents = Arrays.copyOf(documents, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            if (documents[length] == null) {
+                documents[length] = new int[INITIAL_POSTINGS];
+            }
+            int size = sizes[length];
+            if (size == documents[length].length) {
+                documents[length] = Arrays.copyOf(documents[length], size + (size >> 1) + 1);
+            }
+            documents[length][size] = document;
+            sizes[length] = size + 1;
+        }
+    }
+
+    private static long gram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
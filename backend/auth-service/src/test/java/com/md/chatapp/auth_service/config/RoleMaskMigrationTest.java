@@ -0,0 +1,50 @@
+package com.md.chatapp.auth_service.config;
+
+import com.md.chatapp.auth_service.model.Role;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleMaskMigrationTest {
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:rolemask-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(h2);
+        jdbc.execute("create table app_users (id bigint primary key, role_mask int default 0 not null)");
+        jdbc.execute("create table user_roles (user_id bigint, role varchar(20))");
+        jdbc.update("insert into app_users (id) values (1), (2)");
+        jdbc.update("insert into user_roles values (1, 'ROLE_USER'), (1, 'ROLE_ADMIN'), (2, 'ROLE_USER')");
+    }
+
+    @Test
+    void foldsLegacyRolesOnceAndRetiresTheJoinTable() {
+        RoleMaskMigration migration = new RoleMaskMigration(jdbc);
+        migration.afterSingletonsInstantiated();
+
+        assertEquals(Role.ROLE_USER.mask() | Role.ROLE_ADMIN.mask(), mask(1));
+        assertEquals(Role.ROLE_USER.mask(), mask(2));
+        assertEquals(0, tables("user_roles"));
+        assertEquals(3, jdbc.queryForObject("select count(*) from user_roles_migrated", Integer.class));
+
+        // Later startups find no legacy table and leave current masks alone
+        jdbc.update("update app_users set role_mask = 0 where id = 2");
+        migration.afterSingletonsInstantiated();
+        assertEquals(0, mask(2));
+    }
+
+    private int mask(long id) {
+        return jdbc.queryForObject("select role_mask from app_users where id = ?", Integer.class, id);
+    }
+
+    private int tables(String name) {
+        return jdbc.queryForObject("select count(*) from information_schema.tables where lower(table_name) = ?",
+                Integer.class, name);
+    }
+}
@@ -0,0 +1,93 @@
+package com.md.chatapp.auth_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.security.jwt.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class StartupWarmupTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGhhdC1pcy1kZWZpbml0ZWx5LWxvbmctZW5vdWdoLWZvci1oczUxMi1zaWduaW5nLTEyMzQ1Njc4OTAxMjM0NTY3ODkw";
+
+    private final List<Object> events = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static JwtUtils jwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtils, "tokenProfile", "standard");
+        ReflectionTestUtils.setField(jwtUtils, "compactAlgorithm", "HS512");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    private StartupWarmup warmup(UserRepository userRepository, long budgetMs) {
+        return new StartupWarmup(jwtUtils(), userRepository, new BCryptPasswordEncoder(4), new ObjectMapper(),
+                events::add, meterRegistry, true, budgetMs, 500, 2, 2);
+    }
+
+    @Test
+    void exercisesHotPathsAndReportsDuration() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findPrincipalByUsernameOrEmail(anyString())).thenReturn(Optional.empty());
+        StartupWarmup warmup = warmup(userRepository, 30_000);
+
+        warmup.run(new DefaultApplicationArguments());
+
+        assertTrue(warmup.isCompleted());
+        assertTrue(warmup.getDurationNanos() > 0);
+        verify(userRepository, atLeast(100)).findPrincipalByUsernameOrEmail(anyString());
+        verify(userRepository, atLeast(100)).existsByUsername(anyString());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, ((AvailabilityChangeEvent<?>) events.get(0)).getState());
+        assertEquals(warmup.getDurationNanos() / 1e9,
+                meterRegistry.get("auth.warmup.duration").timeGauge().value(TimeUnit.SECONDS), 1e-6);
+    }
+
+    @Test
+    void givesUpWhenBudgetExpires() {
+        UserRepository userRepository = mock(UserRepository.class);
+        // A database that never answers
+        when(userRepository.findPrincipalByUsernameOrEmail(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(60_000);
+            return Optional.empty();
+        });
+        StartupWarmup warmup = warmup(userRepository, 300);
+
+        long start = System.nanoTime();
+        warmup.run(new DefaultApplicationArguments());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(warmup.isCompleted());
+        assertTrue(elapsedMs < 2_000, "warm-up should stop near its budget, took " + elapsedMs + " ms");
+        assertEquals(0.0, meterRegistry.get("auth.warmup.completed").gauge().value());
+    }
+
+    @Test
+    void failedStageIsNotReportedAsCompleted() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findPrincipalByUsernameOrEmail(anyString()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        StartupWarmup warmup = warmup(userRepository, 30_000);
+
+        warmup.run(new DefaultApplicationArguments());
+
+        assertFalse(warmup.isCompleted());
+        assertEquals(0.0, meterRegistry.get("auth.warmup.completed").gauge().value());
+    }
+}
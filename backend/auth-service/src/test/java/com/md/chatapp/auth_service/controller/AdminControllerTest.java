@@ -0,0 +1,73 @@
+package com.md.chatapp.auth_service.controller;
+
+import com.md.chatapp.auth_service.service.UserExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AdminControllerTest {
+
+    private ThreadPoolTaskExecutor executor;
+    private UserExportService exportService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("export-test-");
+        executor.initialize();
+        exportService = mock(UserExportService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AdminController(exportService, executor, 10_000)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void exportRunsOnTheExportPoolAndStreamsTheBody() throws Exception {
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(exportService.export(eq(UserExportService.Format.CSV), any())).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            OutputStream out = invocation.getArgument(1);
+            out.write("id,username\n1,alice\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult started = mockMvc.perform(get("/api/admin/users/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().string("id,username\n1,alice\n"));
+        assertTrue(thread.get().startsWith("export-test-"), "export should run on the dedicated pool, ran on " + thread.get());
+    }
+
+    @Test
+    void unsupportedFormatIsRejected() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/admin/users/export").param("format", "xml")).andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+        verifyNoInteractions(exportService);
+    }
+}
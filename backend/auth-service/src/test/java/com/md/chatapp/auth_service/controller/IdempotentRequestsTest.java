@@ -0,0 +1,188 @@
+package com.md.chatapp.auth_service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.chatapp.auth_service.exception.ErrorResponses;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotentRequestsTest {
+
+    private static IdempotentRequests store(long ttlMs, int maxEntries) throws Exception {
+        return new IdempotentRequests(new ErrorResponses(new ObjectMapper(), 2), new SimpleMeterRegistry(), ttlMs, maxEntries);
+    }
+
+    @Test
+    void concurrentRetriesCollapseOntoOneHash() throws Exception {
+        IdempotentRequests requests = store(60_000, 100);
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        int retries = 16;
+        AtomicInteger hashes = new AtomicInteger();
+        Supplier<ResponseEntity<?>> login = () -> {
+            hashes.incrementAndGet();
+            return ResponseEntity.ok(encoder.encode("password123"));
+        };
+        String fingerprint = requests.fingerprint("alice", "password123");
+
+        ExecutorService executor = Executors.newFixedThreadPool(retries);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ResponseEntity<?>>> futures = new ArrayList<>();
+            for (int i = 0; i < retries; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return requests.execute("login", "retry-storm", fingerprint, login);
+                }));
+            }
+            start.countDown();
+            List<ResponseEntity<?>> responses = new ArrayList<>();
+            for (Future<ResponseEntity<?>> future : futures) {
+                responses.add(future.get());
+            }
+
+            assertEquals(1, hashes.get(), "duplicates must wait for the in-flight attempt, not hash again");
+            Object body = responses.get(0).getBody();
+            assertTrue(responses.stream().allMatch(r -> r.getStatusCode() == HttpStatus.OK && body.equals(r.getBody())));
+            assertEquals(retries - 1, responses.stream()
+                    .filter(r -> "true".equals(r.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER))).count());
+
+            // Without a key every attempt does its own work
+            requests.execute("login", null, null, login);
+            requests.execute("login", null, null, login);
+            assertEquals(3, hashes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void replaysFirstResponseAndRejectsKeyReuseForAnotherRequest() throws Exception {
+        IdempotentRequests requests = store(60_000, 100);
+        AtomicInteger registrations = new AtomicInteger();
+        Supplier<ResponseEntity<?>> register = () -> registrations.incrementAndGet() == 1
+                ? ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully!")
+                : ResponseEntity.badRequest().body("Username is already taken");
+
+        String fingerprint = requests.fingerprint("bob", "bob@example.com", "password123");
+        assertEquals(HttpStatus.CREATED, requests.execute("register", "k1", fingerprint, register).getStatusCode());
+        // The retry gets the original 201, not a conflict with its own earlier attempt
+        ResponseEntity<?> retry = requests.execute("register", "k1", fingerprint, register);
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("User registered successfully!", retry.getBody());
+        assertEquals(1, registrations.get());
+
+        String otherRequest = requests.fingerprint("bob", "bob@example.com", "different-password");
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, requests.execute("register", "k1", otherRequest, register).getStatusCode());
+        // Keys are scoped per endpoint
+        requests.execute("login", "k1", fingerprint, register);
+        assertEquals(2, registrations.get());
+    }
+
+    @Test
+    void serverErrorsAndExceptionsAreNotKept() throws Exception {
+        IdempotentRequests requests = store(60_000, 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        requests.execute("login", "overloaded", "f", () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+        assertThrows(IllegalStateException.class, () -> requests.execute("login", "overloaded", "f", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+        ResponseEntity<?> recovered = requests.execute("login", "overloaded", "f", () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("token");
+        });
+
+        assertEquals(3, calls.get());
+        assertEquals(HttpStatus.OK, recovered.getStatusCode());
+    }
+
+    @Test
+    void entriesExpireAndStoreStaysBounded() throws Exception {
+        IdempotentRequests requests = store(50, 100);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<ResponseEntity<?>> action = () -> ResponseEntity.ok(calls.incrementAndGet());
+
+        requests.execute("login", "short-lived", "f", action);
+        requests.execute("login", "short-lived", "f", action);
+        assertEquals(1, calls.get());
+        Thread.sleep(100);
+        requests.execute("login", "short-lived", "f", action);
+        assertEquals(2, calls.get());
+
+        IdempotentRequests bounded = store(60_000, 100);
+        for (int i = 0; i < 1_000; i++) {
+            bounded.execute("login", "key-" + i, "f", action);
+        }
+        assertTrue(bounded.size() <= 100, "size " + bounded.size());
+    }
+
+    @Test
+    void trimmingNeverEvictsAnInFlightKey() throws Exception {
+        IdempotentRequests requests = store(60_000, 2);
+        AtomicInteger slowCalls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<?>> slow = () -> {
+            slowCalls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.ok("slow");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> first = executor.submit(() -> requests.execute("login", "in-flight", "f", slow));
+            started.await();
+            // Push well past the cap while the first attempt is still running
+            for (int i = 0; i < 10; i++) {
+                requests.execute("login", "filler-" + i, "f", () -> ResponseEntity.ok("filler"));
+            }
+            Future<ResponseEntity<?>> duplicate = executor.submit(() -> requests.execute("login", "in-flight", "f", slow));
+            release.countDown();
+
+            assertEquals("slow", first.get().getBody());
+            assertEquals("slow", duplicate.get().getBody());
+            assertEquals(1, slowCalls.get(), "the duplicate must join the running attempt");
+            assertTrue(requests.size() <= 2, "size " + requests.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestsWithoutKeyAlwaysRunAndBadKeysAreRejected() throws Exception {
+        IdempotentRequests requests = store(60_000, 100);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<ResponseEntity<?>> action = () -> ResponseEntity.ok(calls.incrementAndGet());
+
+        requests.execute("login", null, null, action);
+        requests.execute("login", null, null, action);
+        assertEquals(2, calls.get());
+
+        assertEquals(HttpStatus.BAD_REQUEST, requests.execute("login", "", "f", action).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, requests.execute("login", "has space", "f", action).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, requests.execute("login", "x".repeat(256), "f", action).getStatusCode());
+        assertEquals(2, calls.get());
+    }
+}
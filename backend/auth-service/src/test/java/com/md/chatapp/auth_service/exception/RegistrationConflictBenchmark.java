@@ -0,0 +1,96 @@
+package com.md.chatapp.auth_service.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.chatapp.auth_service.dto.ApiResponse;
+import com.md.chatapp.auth_service.dto.RegisterRequest;
+import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.service.AuthService;
+import com.md.chatapp.auth_service.service.DatabaseLoadGuard;
+import com.md.chatapp.auth_service.service.RegistrationOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Compares a flood of duplicate registrations handled the old way (RuntimeException
+ * with a stack trace, message matching, per-request serialization) against the
+ * typed outcome plus preserialized catalog body. Skipped unless run with
+ * {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RegistrationConflictBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int ROUNDS = 1_000_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ErrorResponses errorResponses;
+    private UserRepository userRepository;
+    private AuthService authService;
+    private RegisterRequest duplicate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        errorResponses = new ErrorResponses(objectMapper, 2);
+        // Plain proxy instead of a Mockito mock so invocation recording doesn't dominate the timings
+        userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> method.getName().startsWith("exists") ? Boolean.TRUE : null);
+        authService = new AuthService(userRepository, null, null, null, event -> { },
+                new DatabaseLoadGuard(20, 2, 200, 5000), null, null);
+
+        duplicate = new RegisterRequest();
+        duplicate.setUsername("taken");
+        duplicate.setEmail("taken@example.com");
+        duplicate.setPassword("password123");
+    }
+
+    @Test
+    void conflictThroughputBeforeAndAfter() throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += legacyConflict();
+            sink += typedConflict();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += legacyConflict();
+        }
+        long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += typedConflict();
+        }
+        long typedNanos = System.nanoTime() - start;
+
+        System.out.printf("Registration conflicts: legacy %,d/s, typed %,d/s (sink %d)%n",
+                ROUNDS * 1_000_000_000L / legacyNanos, ROUNDS * 1_000_000_000L / typedNanos, sink);
+    }
+
+    // What the controller advice used to do for every duplicate registration
+    private int legacyConflict() throws Exception {
+        try {
+            if (!userRepository.existsByUsername(duplicate.getUsername())) {
+                return 0;
+            }
+            throw new RuntimeException("Error: Username is already taken!");
+        } catch (RuntimeException ex) {
+            if (ex.getMessage() != null && ex.getMessage().contains("Username is already taken")) {
+                return objectMapper.writeValueAsBytes(new ApiResponse(false, ex.getMessage())).length;
+            }
+            return 0;
+        }
+    }
+
+    private int typedConflict() {
+        RegistrationOutcome outcome = authService.tryRegister(duplicate);
+        if (outcome instanceof RegistrationOutcome.Rejected rejected) {
+            return errorResponses.of(rejected.errorCode()).getBody().length;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.md.chatapp.auth_service.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.chatapp.auth_service.dto.ApiResponse;
+import com.md.chatapp.auth_service.dto.RegisterRequest;
+import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.service.AuthService;
+import com.md.chatapp.auth_service.service.DatabaseLoadGuard;
+import com.md.chatapp.auth_service.service.RegistrationOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Duplicate registrations come back as typed outcomes with a preserialized
+ * catalog body, and the domain exception that wraps them carries no stack trace.
+ */
+class RegistrationConflictTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ErrorResponses errorResponses;
+    private UserRepository userRepository;
+    private AuthService authService;
+    private RegisterRequest duplicate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        errorResponses = new ErrorResponses(objectMapper, 2);
+        // Every exists* check reports a conflict
+        userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> method.getName().startsWith("exists") ? Boolean.TRUE : null);
+        authService = new AuthService(userRepository, null, null, null, event -> { },
+                new DatabaseLoadGuard(20, 2, 200, 5000), null, null);
+
+        duplicate = new RegisterRequest();
+        duplicate.setUsername("taken");
+        duplicate.setEmail("taken@example.com");
+        duplicate.setPassword("password123");
+    }
+
+    @Test
+    void catalogBodyMatchesSerializedApiResponse() throws Exception {
+        ResponseEntity<byte[]> response = errorResponses.of(ErrorCode.USERNAME_TAKEN);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        ApiResponse body = objectMapper.readValue(response.getBody(), ApiResponse.class);
+        assertFalse(body.isSuccess());
+        assertEquals("Error: Username is already taken!", body.getMessage());
+        assertSame(response, errorResponses.of(ErrorCode.USERNAME_TAKEN));
+    }
+
+    @Test
+    void domainExceptionsCarryNoStackTrace() {
+        UserAlreadyExistsException ex = assertThrows(UserAlreadyExistsException.class,
+                () -> authService.registerUser(duplicate));
+        assertEquals(ErrorCode.USERNAME_TAKEN, ex.getErrorCode());
+        assertEquals(0, ex.getStackTrace().length);
+        assertSame(RegistrationOutcome.USERNAME_TAKEN, authService.tryRegister(duplicate));
+    }
+}
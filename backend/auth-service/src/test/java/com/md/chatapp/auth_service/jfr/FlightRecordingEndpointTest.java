@@ -0,0 +1,101 @@
+package com.md.chatapp.auth_service.jfr;
+
+import com.md.chatapp.auth_service.model.Role;
+import com.md.chatapp.auth_service.security.JfrPasswordEncoder;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
+import com.md.chatapp.auth_service.security.jwt.JwtUtils;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingEndpointTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGhhdC1pcy1kZWZpbml0ZWx5LWxvbmctZW5vdWdoLWZvci1oczUxMi1zaWduaW5nLTEyMzQ1Njc4OTAxMjM0NTY3ODkw";
+
+    @Test
+    void recordsAuthEventsFromLiveTraffic() throws Exception {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtils, "tokenProfile", "compact");
+        ReflectionTestUtils.setField(jwtUtils, "compactAlgorithm", "HS256");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        UserDetailsImpl principal = new UserDetailsImpl(7L, "alice", "alice@example.com", null,
+                Role.ROLE_USER.mask(), true, false, false, false);
+        String token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        PasswordEncoder passwordEncoder = new JfrPasswordEncoder(new BCryptPasswordEncoder(4));
+
+        FlightRecordingEndpoint endpoint = new FlightRecordingEndpoint(30, 60);
+        CompletableFuture<WebEndpointResponse<Resource>> recording =
+                CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return endpoint.record(3);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+
+        // Starting the first recording in a JVM takes a moment; only count traffic once it runs
+        while (FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .noneMatch(r -> r.getState() == RecordingState.RUNNING)) {
+            Thread.sleep(10);
+        }
+        assertEquals(409, endpoint.record(1).getStatus(), "a second concurrent recording is refused");
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(jwtUtils.parseToken(token));
+        }
+        assertNull(jwtUtils.parseToken(token.substring(0, token.length() - 3) + "AAA"));
+        String hash = passwordEncoder.encode("secret");
+        assertTrue(passwordEncoder.matches("secret", hash));
+
+        WebEndpointResponse<Resource> response = recording.get();
+        assertEquals(200, response.getStatus());
+        Path file = Files.createTempFile("endpoint-test", ".jfr");
+        try {
+            Path recorded = response.getBody().getFile().toPath();
+            try (InputStream in = response.getBody().getInputStream()) {
+                Files.write(file, in.readAllBytes());
+            }
+            assertFalse(Files.exists(recorded), "the recording is deleted once it has been streamed");
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.md.chatapp.auth."))
+                    .toList();
+            Map<String, Long> outcomes = events.stream().collect(Collectors.groupingBy(
+                    event -> event.getEventType().getName() + ":" + event.getString("outcome"), Collectors.counting()));
+
+            assertEquals(100L, outcomes.get("com.md.chatapp.auth.TokenVerification:VALID"));
+            assertEquals(1L, outcomes.get("com.md.chatapp.auth.TokenVerification:BAD_SIGNATURE"));
+            assertEquals(1L, outcomes.get("com.md.chatapp.auth.PasswordEncoding:ENCODED"));
+            assertEquals(1L, outcomes.get("com.md.chatapp.auth.PasswordEncoding:MATCH"));
+            assertTrue(events.stream().allMatch(event -> event.getDuration().toNanos() >= 0));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void rejectsOutOfRangeDurations() throws Exception {
+        FlightRecordingEndpoint endpoint = new FlightRecordingEndpoint(30, 60);
+        assertEquals(400, endpoint.record(0).getStatus());
+        assertEquals(400, endpoint.record(61).getStatus());
+    }
+}
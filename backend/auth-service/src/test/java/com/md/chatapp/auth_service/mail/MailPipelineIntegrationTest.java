@@ -0,0 +1,274 @@
+package com.md.chatapp.auth_service.mail;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetup;
+import com.md.chatapp.auth_service.model.OutboxMail;
+import com.md.chatapp.auth_service.model.Role;
+import com.md.chatapp.auth_service.model.TokenPurpose;
+import com.md.chatapp.auth_service.model.User;
+import com.md.chatapp.auth_service.repository.OutboxMailRepository;
+import com.md.chatapp.auth_service.repository.UserRepository;
+import com.md.chatapp.auth_service.repository.UserTokenRepository;
+import com.md.chatapp.auth_service.service.AccountRecoveryService;
+import com.md.chatapp.auth_service.service.UserTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the outbox, dispatcher and token flows against an in-process GreenMail
+ * SMTP server. Rows are committed for real (no test transaction) so the
+ * dispatcher's own transactions can see them.
+ */
+@DataJpaTest
+@Import({SmtpConnectionPool.class, MailDispatcher.class, MailOutboxService.class, UserTokenService.class,
+        AccountRecoveryService.class, MailPipelineIntegrationTest.Beans.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MailPipelineIntegrationTest {
+
+    private static final Pattern TOKEN = Pattern.compile("token=([A-Za-z0-9_-]+)");
+    private static final int PORT = freePort();
+    private static GreenMail greenMail = startSmtp();
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    @DynamicPropertySource
+    static void mail(DynamicPropertyRegistry registry) {
+        registry.add("app.mail.port", () -> PORT);
+        registry.add("app.mail.workers", () -> 2);
+        registry.add("app.mail.batch-size", () -> 10);
+        registry.add("app.mail.max-attempts", () -> 3);
+        registry.add("app.mail.backoff-ms", () -> 50);
+        registry.add("app.mail.poll-interval-ms", () -> 100);
+        registry.add("app.mail.timeout-ms", () -> 1000);
+    }
+
+    @Autowired
+    private MailOutboxService outbox;
+
+    @Autowired
+    private OutboxMailRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTokenRepository tokenRepository;
+
+    @Autowired
+    private AccountRecoveryService accountRecovery;
+
+    @Autowired
+    private SmtpConnectionPool connectionPool;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void resetInbox() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @AfterAll
+    static void stopSmtp() {
+        greenMail.stop();
+    }
+
+    @Test
+    void batchIsDeliveredOverPooledConnectionsAndMetered() {
+        double sentBefore = meterRegistry.counter("mail.sent").count();
+        long latencyBefore = meterRegistry.timer("mail.send.latency").count();
+        long connectionsBefore = connectionPool.getConnectionsOpened();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 50; i++) {
+                outbox.enqueue("bulk" + i + "@example.com", "Bulk " + i, "body " + i);
+            }
+        });
+
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 50), "all 50 messages should arrive");
+        awaitTrue(() -> meterRegistry.counter("mail.sent").count() - sentBefore >= 50);
+        assertEquals(50, meterRegistry.counter("mail.sent").count() - sentBefore);
+        assertEquals(50, meterRegistry.timer("mail.send.latency").count() - latencyBefore);
+        // Two workers, batches of ten: connections are reused rather than opened per message
+        assertTrue(connectionPool.getConnectionsOpened() - connectionsBefore <= 2,
+                "opened " + (connectionPool.getConnectionsOpened() - connectionsBefore) + " connections");
+        awaitTrue(() -> meterRegistry.get("mail.outbox.depth").gauge().value() == 0);
+    }
+
+    @Test
+    void deadLettersAfterMaxAttemptsAndRecoversWhenServerReturns() throws Exception {
+        double deadBefore = meterRegistry.counter("mail.dead").count();
+        greenMail.stop();
+        try {
+            Long id = enqueue("nobody-home@example.com");
+            awaitTrue(() -> outboxRepository.findById(id).orElseThrow().getStatus() == OutboxMail.Status.DEAD);
+            OutboxMail mail = outboxRepository.findById(id).orElseThrow();
+            assertEquals(3, mail.getAttempts());
+            assertNotNull(mail.getLastError());
+            assertEquals(1, meterRegistry.counter("mail.dead").count() - deadBefore);
+        } finally {
+            greenMail = startSmtp();
+        }
+
+        // Pooled connections to the old server are stale; the next batch must reconnect
+        Long id = enqueue("back-again@example.com");
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 1));
+        awaitTrue(() -> outboxRepository.findById(id).orElseThrow().getStatus() == OutboxMail.Status.SENT);
+    }
+
+    @Test
+    void verificationLinkEnablesAccountOnce() throws Exception {
+        User user = saveUser(false);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> accountRecovery.startVerification(user));
+
+        String token = awaitToken(user.getEmail());
+        assertTrue(accountRecovery.verifyEmail(token));
+        assertTrue(userRepository.findById(user.getId()).orElseThrow().isEnabled());
+        assertFalse(accountRecovery.verifyEmail(token), "verification tokens are single-use");
+        assertFalse(accountRecovery.verifyEmail("not-a-real-token"));
+    }
+
+    @Test
+    void passwordResetIsSingleUseAndExpires() throws Exception {
+        User user = saveUser(true);
+
+        accountRecovery.requestPasswordReset(user.getEmail());
+        String token = awaitToken(user.getEmail());
+        // A second request while the first link is live and fresh is dropped
+        long queued = outboxRepository.count();
+        accountRecovery.requestPasswordReset(user.getEmail());
+        assertEquals(queued, outboxRepository.count(), "repeat requests within the cooldown must not mail again");
+        // Only the hash is stored
+        assertTrue(tokenRepository.findAll().stream().noneMatch(t -> t.getTokenHash().equals(token)));
+
+        assertTrue(accountRecovery.confirmPasswordReset(token, "new-password"));
+        assertTrue(passwordEncoder.matches("new-password", userRepository.findById(user.getId()).orElseThrow().getPassword()));
+        assertFalse(accountRecovery.confirmPasswordReset(token, "another-password"), "reset tokens are single-use");
+
+        greenMail.purgeEmailFromAllMailboxes();
+        accountRecovery.requestPasswordReset(user.getEmail());
+        String expiring = awaitToken(user.getEmail());
+        tokenRepository.findAll().stream()
+                .filter(t -> t.getUserId().equals(user.getId()) && t.getPurpose() == TokenPurpose.PASSWORD_RESET && t.getUsedAt() == null)
+                .forEach(t -> {
+                    t.setExpiresAt(Instant.now().minusSeconds(1));
+                    tokenRepository.save(t);
+                });
+        assertFalse(accountRecovery.confirmPasswordReset(expiring, "too-late-password"));
+
+        // Unknown addresses are accepted silently and produce no mail
+        long pending = outboxRepository.count();
+        accountRecovery.requestPasswordReset("unknown@example.com");
+        assertEquals(pending, outboxRepository.count());
+    }
+
+    @Test
+    void leaseCoversAWorstCaseBatch() {
+        // 20 messages x 5 s timeouts: the old 60 s default would expire mid-batch
+        assertEquals(Duration.ofSeconds(135), MailDispatcher.lease(0, 20, 5000));
+        assertEquals(Duration.ofSeconds(135), MailDispatcher.lease(60_000, 20, 5000));
+        assertEquals(Duration.ofMinutes(5), MailDispatcher.lease(300_000, 20, 5000));
+    }
+
+    private Long enqueue(String recipient) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> outbox.enqueue(recipient, "Hello", "body").getId());
+    }
+
+    private User saveUser(boolean enabled) {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword(passwordEncoder.encode("old-password"));
+        user.addRole(Role.ROLE_USER);
+        user.setEnabled(enabled);
+        return userRepository.save(user);
+    }
+
+    private String awaitToken(String recipient) throws Exception {
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 1));
+        for (MimeMessage message : greenMail.getReceivedMessagesForDomain(recipient)) {
+            Matcher matcher = TOKEN.matcher(GreenMailUtil.getBody(message));
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        throw new AssertionError("no token mailed to " + recipient);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met within 10s");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+
+    private static GreenMail startSmtp() {
+        GreenMail server = new GreenMail(new ServerSetup(PORT, "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+        server.start();
+        return server;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.md.chatapp.auth_service.security;
+
+import com.md.chatapp.auth_service.model.Role;
+import com.md.chatapp.auth_service.security.PermissionAuthorizationManagerTest.Endpoints;
+import com.md.chatapp.auth_service.security.PermissionAuthorizationManagerTest.MethodSecurityTestConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-call cost of {@link RequiresPermission} against the equivalent
+ * {@code @PreAuthorize} SpEL expressions. Skipped unless run with
+ * {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PermissionAuthorizationBenchmark {
+
+    private static final int WARMUP = 500_000;
+    private static final int CALLS = 2_000_000;
+
+    @Test
+    void bitsetCheckVersusSpel() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(MethodSecurityTestConfig.class)) {
+            Endpoints endpoints = context.getBean(Endpoints.class);
+            PermissionAuthorizationManagerTest.authenticateAs(Role.ROLE_ADMIN.mask());
+            long spel = measure(endpoints::spelAdmin);
+            long bits = measure(endpoints::bitsAdmin);
+            long spelImplied = measure(endpoints::spelUser);
+            long bitsImplied = measure(endpoints::bitsUser);
+            System.out.printf("Method security per call: @PreAuthorize hasRole('ADMIN') %d ns, @RequiresPermission %d ns; "
+                    + "implied USER: SpEL %d ns, bitset %d ns%n", spel, bits, spelImplied, bitsImplied);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static long measure(IntSupplier call) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += call.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            sink += call.getAsInt();
+        }
+        long perCall = (System.nanoTime() - start) / CALLS;
+        assertNotEquals(42, sink);
+        return perCall;
+    }
+}
@@ -0,0 +1,153 @@
+package com.md.chatapp.auth_service.security;
+
+import com.md.chatapp.auth_service.config.PermissionSecurityConfig;
+import com.md.chatapp.auth_service.model.Permission;
+import com.md.chatapp.auth_service.model.Role;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link RequiresPermission} through real method-security proxies next to the
+ * equivalent {@code @PreAuthorize} SpEL expressions and checks the role hierarchy.
+ */
+class PermissionAuthorizationManagerTest {
+
+    private static AnnotationConfigApplicationContext context;
+    private static Endpoints endpoints;
+
+    @Configuration
+    @EnableMethodSecurity
+    @Import(PermissionSecurityConfig.class)
+    static class MethodSecurityTestConfig {
+        @Bean
+        Endpoints endpoints() {
+            return new Endpoints();
+        }
+
+        @Bean
+        Guarded userGuarded() {
+            return new UserGuarded();
+        }
+
+        @Bean
+        Guarded adminGuarded() {
+            return new AdminGuarded();
+        }
+    }
+
+    // One interface method, two implementations with different class-level requirements
+    interface Guarded {
+        int call();
+    }
+
+    @RequiresPermission(Permission.USER_SEARCH)
+    static class UserGuarded implements Guarded {
+        public int call() {
+            return 1;
+        }
+    }
+
+    @RequiresPermission({Permission.USER_EXPORT, Permission.USER_MANAGE})
+    static class AdminGuarded implements Guarded {
+        public int call() {
+            return 2;
+        }
+    }
+
+    static class Endpoints {
+        int counter;
+
+        @PreAuthorize("hasRole('USER')")
+        public int spelUser() {
+            return ++counter;
+        }
+
+        @PreAuthorize("hasRole('ADMIN')")
+        public int spelAdmin() {
+            return ++counter;
+        }
+
+        @RequiresPermission(Permission.USER_SEARCH)
+        public int bitsUser() {
+            return ++counter;
+        }
+
+        @RequiresPermission({Permission.USER_EXPORT, Permission.USER_MANAGE})
+        public int bitsAdmin() {
+            return ++counter;
+        }
+    }
+
+    @BeforeAll
+    static void startContext() {
+        context = new AnnotationConfigApplicationContext(MethodSecurityTestConfig.class);
+        endpoints = context.getBean(Endpoints.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    static void authenticateAs(int roleMask) {
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "alice", "alice@example.com", null, roleMask,
+                true, false, false, false);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void adminImpliesUser() {
+        assertEquals(Role.ROLE_USER.mask() | Role.ROLE_ADMIN.mask(), Role.effectiveMask(Role.ROLE_ADMIN.mask()));
+        assertEquals(Role.ROLE_USER.mask(), Role.effectiveMask(Role.ROLE_USER.mask()));
+        assertEquals(RolePermissions.forMask(Role.ROLE_USER.mask() | Role.ROLE_ADMIN.mask()),
+                RolePermissions.forMask(Role.ROLE_ADMIN.mask()));
+
+        authenticateAs(Role.ROLE_ADMIN.mask());
+        assertDoesNotThrow(endpoints::bitsUser);
+        assertDoesNotThrow(endpoints::bitsAdmin);
+        assertDoesNotThrow(endpoints::spelUser);
+    }
+
+    @Test
+    void userCannotCallAdminMethods() {
+        authenticateAs(Role.ROLE_USER.mask());
+        assertDoesNotThrow(endpoints::bitsUser);
+        assertThrows(AccessDeniedException.class, endpoints::bitsAdmin);
+        assertThrows(AccessDeniedException.class, endpoints::spelAdmin);
+    }
+
+    @Test
+    void requirementsAreResolvedPerTargetClass() {
+        authenticateAs(Role.ROLE_USER.mask());
+        Guarded user = context.getBean("userGuarded", Guarded.class);
+        Guarded admin = context.getBean("adminGuarded", Guarded.class);
+        assertEquals(1, user.call());
+        assertThrows(AccessDeniedException.class, admin::call);
+        assertEquals(1, user.call());
+    }
+
+    @Test
+    void principalWithoutRolesIsDenied() {
+        authenticateAs(0);
+        assertThrows(AccessDeniedException.class, endpoints::bitsUser);
+    }
+}
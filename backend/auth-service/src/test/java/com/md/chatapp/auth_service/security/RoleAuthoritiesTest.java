@@ -0,0 +1,48 @@
+package com.md.chatapp.auth_service.security;
+
+import com.md.chatapp.auth_service.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleAuthoritiesTest {
+
+    @Test
+    void maskRoundTripsThroughRoleSet() {
+        int mask = Role.toMask(EnumSet.of(Role.ROLE_USER, Role.ROLE_ADMIN));
+
+        assertEquals(EnumSet.of(Role.ROLE_USER, Role.ROLE_ADMIN), Role.fromMask(mask));
+        assertEquals(EnumSet.noneOf(Role.class), Role.fromMask(0));
+    }
+
+    @Test
+    void persistedBitsNeverChange() {
+        // Stored in app_users.role_mask and JWT "r" claims, and mirrored by api-gateway
+        assertEquals(1, Role.ROLE_USER.mask());
+        assertEquals(1 << 1, Role.ROLE_ADMIN.mask());
+        assertEquals(1 << 2, Role.MASK_COUNT);
+    }
+
+    @Test
+    void forMask_returnsSharedImmutableList() {
+        List<GrantedAuthority> user = RoleAuthorities.forMask(Role.ROLE_USER.mask());
+
+        assertSame(user, RoleAuthorities.forMask(Role.ROLE_USER.mask()));
+        assertEquals("ROLE_USER", user.get(0).getAuthority());
+        assertThrows(UnsupportedOperationException.class, () -> user.add(user.get(0)));
+        assertThrows(IllegalArgumentException.class, () -> RoleAuthorities.forMask(Role.MASK_COUNT));
+    }
+
+    @Test
+    void principalUsesAuthoritiesForItsMask() {
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "alice", "alice@example.com", "hash",
+                Role.ROLE_USER.mask() | Role.ROLE_ADMIN.mask(), true, false, false, false);
+
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"),
+                principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+}
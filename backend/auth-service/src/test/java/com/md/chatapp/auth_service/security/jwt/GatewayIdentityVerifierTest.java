@@ -0,0 +1,65 @@
+package com.md.chatapp.auth_service.security.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayIdentityVerifierTest {
+
+    private static final String SECRET = "aWRlbnRpdHktaGVhZGVyLXRlc3Qta2V5LTMyLWJ5dGVzLW1pbg==";
+
+    // Same encoding the api-gateway's IdentityHeader produces
+    private static String header(String secret, long userId, int roleMask, long issuedAt, String username) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = userId + "." + roleMask + "." + issuedAt + "."
+                + encoder.encodeToString(username.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256"));
+        return payload + "." + encoder.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    void acceptsFreshSignedIdentity() throws Exception {
+        GatewayIdentityVerifier verifier = new GatewayIdentityVerifier(SECRET, 30);
+
+        TokenClaims claims = verifier.verify(header(SECRET, 42, 3, now(), "zoë"));
+
+        assertEquals(new TokenClaims(42L, "zoë", 3), claims);
+    }
+
+    @Test
+    void rejectsForgedTamperedOrStaleIdentity() throws Exception {
+        GatewayIdentityVerifier verifier = new GatewayIdentityVerifier(SECRET, 30);
+        String otherSecret = Base64.getEncoder().encodeToString("some-other-key-that-is-32-bytes-long".getBytes());
+
+        assertNull(verifier.verify(header(otherSecret, 42, 3, now(), "alice")));
+        assertNull(verifier.verify(header(SECRET, 42, 1, now(), "alice").replaceFirst("^42\\.1\\.", "42.3.")));
+        assertNull(verifier.verify(header(SECRET, 42, 3, now() - 60, "alice")));
+        assertNull(verifier.verify("garbage"));
+        assertNull(verifier.verify("1.2.3.4.!!!"));
+    }
+
+    @Test
+    void ignoresHeaderWhenNoSecretConfigured() throws Exception {
+        GatewayIdentityVerifier verifier = new GatewayIdentityVerifier("", 30);
+
+        assertFalse(verifier.isEnabled());
+        assertNull(verifier.verify(header(SECRET, 42, 3, now(), "alice")));
+    }
+
+    @Test
+    void refusesSecretsShorterThan256Bits() {
+        String shortSecret = Base64.getEncoder().encodeToString("only-31-bytes-of-identity-key!!".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> new GatewayIdentityVerifier(shortSecret, 30));
+    }
+}
@@ -0,0 +1,40 @@
+package com.md.chatapp.auth_service.security.jwt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static com.md.chatapp.auth_service.security.jwt.JwtUtilsTest.authentication;
+import static com.md.chatapp.auth_service.security.jwt.JwtUtilsTest.jwtUtils;
+
+/**
+ * Token size and parse cost of each profile. Skipped unless run with
+ * {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class JwtUtilsBenchmark {
+
+    @Test
+    void sizeAndParseCostPerProfile() {
+        JwtUtils standard = jwtUtils("standard", "HS512");
+        String standardToken = standard.generateJwtToken(authentication());
+        String compact512Token = jwtUtils("compact", "HS512").generateJwtToken(authentication());
+        String compact256Token = jwtUtils("compact", "HS256").generateJwtToken(authentication());
+
+        System.out.printf("JWT size: standard/HS512=%d bytes, compact/HS512=%d bytes, compact/HS256=%d bytes%n",
+                standardToken.length(), compact512Token.length(), compact256Token.length());
+        System.out.printf("JWT parse: standard/HS512=%.1fus, compact/HS512=%.1fus, compact/HS256=%.1fus%n",
+                parseMicros(standard, standardToken), parseMicros(standard, compact512Token), parseMicros(standard, compact256Token));
+    }
+
+    private static double parseMicros(JwtUtils jwtUtils, String token) {
+        for (int i = 0; i < 20_000; i++) {
+            jwtUtils.parseToken(token);
+        }
+        int iterations = 50_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            jwtUtils.parseToken(token);
+        }
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+}
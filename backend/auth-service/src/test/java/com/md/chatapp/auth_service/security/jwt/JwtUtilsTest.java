@@ -0,0 +1,83 @@
+package com.md.chatapp.auth_service.security.jwt;
+
+import com.md.chatapp.auth_service.model.Role;
+import com.md.chatapp.auth_service.security.UserDetailsImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGhhdC1pcy1kZWZpbml0ZWx5LWxvbmctZW5vdWdoLWZvci1oczUxMi1zaWduaW5nLTEyMzQ1Njc4OTAxMjM0NTY3ODkw";
+
+    static JwtUtils jwtUtils(String profile, String compactAlgorithm) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtils, "tokenProfile", profile);
+        ReflectionTestUtils.setField(jwtUtils, "compactAlgorithm", compactAlgorithm);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    static Authentication authentication() {
+        UserDetailsImpl principal = new UserDetailsImpl(123456L, "db_test_user_01", "user@example.com", "hash",
+                Role.ROLE_USER.mask() | Role.ROLE_ADMIN.mask(), true, false, false, false);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Test
+    void parseToken_readsBothProfiles() {
+        JwtUtils standard = jwtUtils("standard", "HS512");
+        JwtUtils compact = jwtUtils("compact", "HS256");
+        int adminAndUser = Role.ROLE_USER.mask() | Role.ROLE_ADMIN.mask();
+
+        String standardToken = standard.generateJwtToken(authentication());
+        String compactToken = compact.generateJwtToken(authentication());
+
+        // Either instance decodes either profile during a rollout
+        for (JwtUtils decoder : new JwtUtils[] {standard, compact}) {
+            assertEquals(new TokenClaims(123456L, "db_test_user_01", adminAndUser), decoder.parseToken(standardToken));
+            assertEquals(new TokenClaims(123456L, "db_test_user_01", adminAndUser), decoder.parseToken(compactToken));
+        }
+        assertNull(standard.parseToken(compactToken.substring(0, compactToken.length() - 2)));
+    }
+
+    @Test
+    void compactProfile_isSmaller() {
+        JwtUtils standard = jwtUtils("standard", "HS512");
+        JwtUtils compact512 = jwtUtils("compact", "HS512");
+        JwtUtils compact256 = jwtUtils("compact", "HS256");
+
+        String standardToken = standard.generateJwtToken(authentication());
+        String compact512Token = compact512.generateJwtToken(authentication());
+        String compact256Token = compact256.generateJwtToken(authentication());
+
+        assertTrue(compact512Token.length() < standardToken.length());
+        assertTrue(compact256Token.length() < compact512Token.length());
+    }
+
+    @Test
+    void parseToken_rejectsSignedTokensWithMalformedClaims() {
+        JwtUtils jwtUtils = jwtUtils("compact", "HS256");
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        Date expiry = new Date(System.currentTimeMillis() + 60_000);
+
+        String nonNumericSubject = Jwts.builder().subject("alice").claim("u", "alice").claim("r", 1)
+                .expiration(expiry).signWith(key, Jwts.SIG.HS256).compact();
+        String textRoleMask = Jwts.builder().subject("7").claim("u", "alice").claim("r", "admin")
+                .expiration(expiry).signWith(key, Jwts.SIG.HS256).compact();
+
+        assertNull(jwtUtils.parseToken(nonNumericSubject));
+        assertNull(jwtUtils.parseToken(textRoleMask));
+    }
+}
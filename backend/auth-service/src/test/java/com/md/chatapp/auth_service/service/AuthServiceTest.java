@@ -8,10 +8,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
-
-import java.util.Optional;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +38,18 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AccountRecoveryService accountRecovery;
+
+    @Spy
+    private DatabaseLoadGuard dbGuard = new DatabaseLoadGuard(20, 2, 200, 5000);
+
     @InjectMocks
     private AuthService authService;
 
@@ -52,8 +66,8 @@ class AuthServiceTest {
     @Test
     void whenRegisterNewUser_thenSucceeds() {
         // Arrange: Mock the repository to indicate the user does not exist.
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
+        when(userRepository.existsByUsername("testuser")).thenReturn(false);
+        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
 
         // Arrange: Mock the password encoder.
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
@@ -80,9 +94,31 @@ class AuthServiceTest {
     @Test
     void whenRegisterExistingUser_thenThrowsException() {
         // Arrange: Mock the repository to indicate the username already exists.
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(new User()));
+        when(userRepository.existsByUsername("testuser")).thenReturn(true);
 
         // Act & Assert: Expect an exception to be thrown.
         assertThrows(RuntimeException.class, () -> authService.registerUser(registerRequest), "Expected registerUser to throw, but it didn't");
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenConcurrentRegistrationTakesTheEmailFirst_thenReturnsEmailTaken() {
+        // Both checks pass before the other request commits; the unique constraint catches it on insert
+        when(userRepository.existsByUsername("testuser")).thenReturn(false);
+        when(userRepository.existsByEmail("test@example.com")).thenReturn(false, true);
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("uk_app_users_email"));
+
+        assertSame(RegistrationOutcome.EMAIL_TAKEN, authService.tryRegister(registerRequest));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void whenSaveViolatesAnotherConstraint_thenTheFailurePropagates() {
+        when(userRepository.existsByUsername("testuser")).thenReturn(false);
+        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("not null"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> authService.tryRegister(registerRequest));
+    }
+}
@@ -0,0 +1,187 @@
+package com.md.chatapp.auth_service.service;
+
+import com.md.chatapp.auth_service.exception.DatabaseOverloadedException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@link DatabaseLoadGuard} against a real connection pool whose database can be
+ * made slow on demand, and checks that the guard sheds instead of letting callers pile
+ * up on the pool, reports degraded health, and recovers once latency returns to normal.
+ */
+class DatabaseLoadGuardFaultInjectionTest {
+
+    private static final int POOL_SIZE = 8;
+
+    private SlowDataSource slowDataSource;
+    private HikariDataSource pool;
+    private JdbcTemplate jdbc;
+    private DatabaseLoadGuard guard;
+    private DatabaseLoadHealthIndicator health;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:guard;DB_CLOSE_DELAY=-1");
+        slowDataSource = new SlowDataSource(h2);
+
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(slowDataSource);
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(10_000);
+        pool = new HikariDataSource(config);
+
+        jdbc = new JdbcTemplate(pool);
+        jdbc.execute("create table if not exists users (id bigint primary key, username varchar(50))");
+        jdbc.update("merge into users key (id) values (1, 'alice')");
+
+        guard = new DatabaseLoadGuard(20, 2, 200, 300);
+        health = new DatabaseLoadHealthIndicator(guard);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void shedsWhenDatabaseSlowsDownAndRecovers() throws Exception {
+        // Healthy: fewer callers than the limit, nothing is shed
+        Result healthy = hammer(POOL_SIZE, 1_000);
+        assertEquals(0, healthy.rejected, "no shedding while the database is fast");
+        assertEquals(Status.UP, health.health().getStatus());
+
+        // Fault: every statement takes 100 ms and four times as many callers as connections arrive
+        slowDataSource.delayMillis = 100;
+        Result slow = hammer(4 * POOL_SIZE, 2_000);
+        assertTrue(slow.rejected > 0, "guard should shed under a slow database");
+        assertTrue(guard.getLimit() < 20, "limit should adapt downwards, was " + guard.getLimit());
+        assertTrue(slow.rejectedP99Nanos < TimeUnit.MILLISECONDS.toNanos(5), "shed calls must fail fast");
+        assertEquals(Status.UP, health.health().getStatus(), "shedding keeps the service in rotation");
+        assertEquals(true, health.health().getDetails().get("degraded"));
+
+        // Recovery: latency back to normal, degraded flag clears after the hold period
+        slowDataSource.delayMillis = 0;
+        hammer(POOL_SIZE, 1_000);
+        Thread.sleep(400);
+        assertEquals(false, health.health().getDetails().get("degraded"));
+        assertFalse(guard.isDegraded());
+    }
+
+    @Test
+    void businessFailuresDoNotShrinkTheLimit() {
+        for (int i = 0; i < 100; i++) {
+            assertThrows(DataIntegrityViolationException.class, () -> guard.execute(() -> {
+                throw new DataIntegrityViolationException("duplicate key");
+            }));
+        }
+        assertEquals(20, guard.getLimit(), "constraint violations are not overload");
+
+        assertThrows(QueryTimeoutException.class, () -> guard.execute(() -> {
+            throw new QueryTimeoutException("statement timed out");
+        }));
+        assertTrue(guard.getLimit() < 20, "timeouts should back the limit off");
+    }
+
+    private Result hammer(int threads, long durationMillis) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        AtomicLong served = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<Future<long[][]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long[] servedNanos = new long[1 << 16];
+                long[] rejectedNanos = new long[1 << 16];
+                int s = 0;
+                int r = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        guard.execute(() -> jdbc.queryForObject(
+                                "select count(*) from users where username = ?", Integer.class, "alice"));
+                        servedNanos[s++ & 0xFFFF] = System.nanoTime() - start;
+                        served.incrementAndGet();
+                    } catch (DatabaseOverloadedException e) {
+                        rejectedNanos[r++ & 0xFFFF] = System.nanoTime() - start;
+                        rejected.incrementAndGet();
+                        // A real client would honour Retry-After; back off briefly so the loop isn't a spin
+                        Thread.sleep(1);
+                    }
+                }
+                return new long[][]{Arrays.copyOf(servedNanos, Math.min(s, 1 << 16)),
+                        Arrays.copyOf(rejectedNanos, Math.min(r, 1 << 16))};
+            }));
+        }
+        List<long[]> servedSamples = new ArrayList<>();
+        List<long[]> rejectedSamples = new ArrayList<>();
+        for (Future<long[][]> future : futures) {
+            long[][] samples = future.get();
+            servedSamples.add(samples[0]);
+            rejectedSamples.add(samples[1]);
+        }
+        executor.shutdown();
+        return new Result(served.get(), rejected.get(), p99(servedSamples), p99(rejectedSamples));
+    }
+
+    private static long p99(List<long[]> samples) {
+        long[] all = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return all.length == 0 ? 0 : all[(int) (all.length * 0.99)];
+    }
+
+    private record Result(long served, long rejected, long servedP99Nanos, long rejectedP99Nanos) {
+    }
+
+    /** Stand-in for a struggling Postgres: every statement is delayed by {@code delayMillis}. */
+    private static final class SlowDataSource extends DelegatingDataSource {
+
+        volatile long delayMillis;
+
+        SlowDataSource(JdbcDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                            long delay = delayMillis;
+                            if (delay > 0) {
+                                Thread.sleep(delay);
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
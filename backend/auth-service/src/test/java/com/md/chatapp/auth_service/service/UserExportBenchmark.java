@@ -0,0 +1,136 @@
+package com.md.chatapp.auth_service.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a large table and checks that live heap stays flat while it streams.
+ * The database is a file-backed H2 so the table itself doesn't sit on the test's heap.
+ * Skipped unless the row count is given, e.g.
+ * <pre>
+ *   mvn test -Dtest=UserExportBenchmark -Dexport.benchmark.users=1000000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "export.benchmark.users", matches = "\\d+")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserExportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserExportBenchmark {
+
+    private static final int USERS = Integer.getInteger("export.benchmark.users", 0);
+    private static final int SAMPLE_EVERY_BYTES = 8 * 1024 * 1024;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        String dir = Files.createTempDirectory("export-test").toAbsolutePath().toString();
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + dir + "/users;CACHE_SIZE=16384");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private UserExportService exportService;
+
+    private void seed() {
+        String sql = "insert into app_users (username, email, password, role_mask, enabled, "
+                + "account_locked, account_expired, credentials_expired) values (?, ?, ?, ?, true, false, false, false)";
+        int batch = 10_000;
+        for (int offset = 0; offset < USERS; offset += batch) {
+            int base = offset;
+            jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int n = base + i;
+                    ps.setString(1, "user" + n);
+                    ps.setString(2, "user" + n + "@example.com");
+                    ps.setString(3, "$2a$10$notarealhashnotarealhashnotarealhashnotarealhash");
+                    ps.setInt(4, n % 100 == 0 ? 3 : 1);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch;
+                }
+            });
+        }
+    }
+
+    @Test
+    void streamsInFlatHeap() throws IOException {
+        seed();
+        HeapSamplingStream out = new HeapSamplingStream();
+        long baseline = HeapSamplingStream.liveHeap();
+
+        long exported = exportService.export(UserExportService.Format.NDJSON, out);
+
+        assertEquals(USERS, exported);
+        assertEquals(USERS, out.lines);
+        long peak = out.samples.stream().mapToLong(Long::longValue).max().orElse(baseline);
+        long early = out.samples.get(0);
+        long late = out.samples.get(out.samples.size() - 1);
+        System.out.printf("Export: %,d rows, %,d MiB written, live heap baseline %,d KiB, first sample %,d KiB, "
+                        + "last sample %,d KiB, peak %,d KiB over %d samples%n",
+                exported, out.bytes >> 20, baseline >> 10, early >> 10, late >> 10, peak >> 10, out.samples.size());
+        // Flat: the heap late in the export is no bigger than early on (allowing GC noise),
+        // and never more than a few MiB above where it started
+        assertTrue(late - early < 8L << 20, "live heap grew while streaming");
+        assertTrue(peak - baseline < 32L << 20, "live heap peaked too far above baseline");
+    }
+
+    /** Discards output but counts lines and samples post-GC heap every few MiB written. */
+    private static final class HeapSamplingStream extends OutputStream {
+
+        final List<Long> samples = new ArrayList<>();
+        long bytes;
+        long lines;
+        private long nextSample = SAMPLE_EVERY_BYTES;
+
+        static long liveHeap() {
+            System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+            bytes += len;
+            if (bytes >= nextSample) {
+                samples.add(liveHeap());
+                nextSample += SAMPLE_EVERY_BYTES;
+            }
+        }
+    }
+}
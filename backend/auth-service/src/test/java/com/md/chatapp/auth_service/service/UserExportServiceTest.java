@@ -0,0 +1,87 @@
+package com.md.chatapp.auth_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Export format and keyset pagination over a small table. The page size is
+ * tiny so pages are crossed, the row count is an exact multiple of it, and a
+ * deleted row leaves a gap in the ids.
+ */
+@DataJpaTest(properties = "app.export.page-size=" + UserExportServiceTest.PAGE_SIZE)
+@Import(UserExportService.class)
+class UserExportServiceTest {
+
+    static final int PAGE_SIZE = 7;
+    private static final int USERS = 3 * PAGE_SIZE;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private UserExportService exportService;
+
+    @BeforeEach
+    void seed() {
+        String sql = "insert into app_users (username, email, password, role_mask, enabled, "
+                + "account_locked, account_expired, credentials_expired) values (?, ?, ?, ?, true, false, false, false)";
+        for (int n = 0; n <= USERS; n++) {
+            jdbc.update(sql, n == 0 ? "comma,\"quoted\" user" : n == 1 ? "=cmd" : "user" + n,
+                    "user" + n + "@example.com", "$2a$10$notarealhash", n == 0 ? 3 : 1);
+        }
+        jdbc.update("delete from app_users where username = ?", "user5");
+    }
+
+    @Test
+    void ndjsonExportsEveryRowOnceInIdOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(USERS, exportService.export(UserExportService.Format.NDJSON, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(USERS, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> usernames = new ArrayList<>();
+        long previousId = 0;
+        for (String line : lines) {
+            JsonNode user = mapper.readTree(line);
+            assertTrue(user.get("id").asLong() > previousId, "ids must ascend across pages");
+            previousId = user.get("id").asLong();
+            usernames.add(user.get("username").asText());
+        }
+        assertEquals("comma,\"quoted\" user", usernames.get(0));
+        assertFalse(usernames.contains("user5"));
+        assertEquals("user" + USERS, usernames.get(USERS - 1));
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"),
+                mapper.convertValue(mapper.readTree(lines[0]).get("roles"), List.class));
+    }
+
+    @Test
+    void csvQuotesAwkwardValues() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(USERS, exportService.export(UserExportService.Format.CSV, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(USERS + 1, lines.length);
+        assertEquals("id,username,email,roles,enabled,account_locked,account_expired,credentials_expired", lines[0]);
+        assertTrue(lines[1].matches("\\d+,\"comma,\"\"quoted\"\" user\",user0@example.com,ROLE_USER\\|ROLE_ADMIN,true,false,false,false"),
+                lines[1]);
+        assertTrue(lines[2].endsWith(",\"'=cmd\",user1@example.com,ROLE_USER,true,false,false,false"), lines[2]);
+        assertTrue(lines[USERS].endsWith(",user" + USERS + ",user" + USERS + "@example.com,ROLE_USER,true,false,false,false"));
+    }
+}
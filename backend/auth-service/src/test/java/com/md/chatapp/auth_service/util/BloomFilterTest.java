@@ -0,0 +1,48 @@
+package com.md.chatapp.auth_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsInsertedValuesAsAbsent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        int inserted = 1_000_000;
+        BloomFilter filter = new BloomFilter(inserted, 0.01);
+        for (int i = 0; i < inserted; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        int probes = 1_000_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        double observed = (double) falsePositives / probes;
+        assertTrue(observed < 0.012, "observed false-positive rate " + observed);
+    }
+
+    @Test
+    void tenMillionUsersFitInAboutTwelveMegabytesPerFilter() {
+        BloomFilter filter = new BloomFilter(10_000_000, 0.01);
+
+        assertEquals(7, filter.hashFunctions());
+        assertTrue(filter.sizeInBytes() < 12 * 1024 * 1024, "size " + filter.sizeInBytes());
+        assertEquals(0.01, filter.expectedFalsePositiveProbability(10_000_000), 0.001);
+    }
+}
@@ -0,0 +1,74 @@
+package com.md.chatapp.auth_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresenceTrackerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    // 4 shards, 30-tick TTL, 1-tick resolution
+    private final PresenceTracker tracker = new PresenceTracker(4, 30, 1, now::get);
+
+    @Test
+    void heartbeat_keepsUserOnlineUntilTtlElapses() {
+        tracker.heartbeat(7);
+        now.set(29);
+        tracker.advance();
+        assertTrue(tracker.isOnline(7));
+
+        now.set(30);
+        assertEquals(1, tracker.advance());
+        assertFalse(tracker.isOnline(7));
+        assertEquals(0, tracker.onlineCount());
+    }
+
+    @Test
+    void heartbeat_movesExpiryForward() {
+        tracker.heartbeat(7);
+        now.set(20);
+        tracker.heartbeat(7);
+        now.set(45);
+        tracker.advance();
+
+        assertTrue(tracker.isOnline(7));
+        now.set(50);
+        tracker.advance();
+        assertFalse(tracker.isOnline(7));
+    }
+
+    @Test
+    void advance_catchesUpAfterMissedTicks() {
+        for (long id = 1; id <= 1000; id++) {
+            tracker.heartbeat(id);
+        }
+        now.set(500);
+
+        assertEquals(1000, tracker.advance());
+        assertEquals(0, tracker.onlineCount());
+    }
+
+    @Test
+    void filterOnline_returnsOnlineSubsetInOrder() {
+        tracker.heartbeat(3);
+        tracker.heartbeat(1);
+        tracker.heartbeat(5);
+        tracker.remove(5);
+
+        assertArrayEquals(new long[] {1, 3}, tracker.filterOnline(new long[] {1, 2, 3, 4, 5}));
+    }
+
+    @Test
+    void slotsAreReusedAfterExpiry() {
+        for (int round = 0; round < 10; round++) {
+            for (long id = 0; id < 10_000; id++) {
+                tracker.heartbeat(round * 10_000L + id);
+            }
+            now.addAndGet(31);
+            tracker.advance();
+        }
+        assertEquals(0, tracker.onlineCount());
+    }
+}
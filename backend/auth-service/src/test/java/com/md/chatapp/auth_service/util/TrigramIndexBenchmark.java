@@ -0,0 +1,58 @@
+package com.md.chatapp.auth_service.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Search latency over a random query mix and over one-character prefixes,
+ * the first keystroke of every contact search. Skipped unless the user count
+ * is given, e.g.
+ * <pre>
+ *   mvn test -Dtest=TrigramIndexBenchmark -Dtrigram.benchmark.users=10000000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "trigram.benchmark.users", matches = "\\d+")
+class TrigramIndexBenchmark {
+
+    @Test
+    void searchLatency() {
+        int users = Integer.getInteger("trigram.benchmark.users");
+        TrigramIndex index = new TrigramIndex(users, 5_000);
+        Random random = new Random(42);
+        String[] usernames = new String[users];
+        for (int i = 0; i < users; i++) {
+            usernames[i] = TrigramIndexTest.randomName(random);
+            index.put(i, usernames[i]);
+        }
+
+        int queries = 20_000;
+        long[] mixed = measure(queries, () -> {
+            String name = usernames[random.nextInt(users)];
+            int from = random.nextInt(Math.max(1, name.length() - 3));
+            return name.substring(from, Math.min(name.length(), from + 1 + random.nextInt(5)));
+        }, index);
+        long[] firstKeystroke = measure(queries, () -> String.valueOf((char) ('a' + random.nextInt(26))), index);
+
+        System.out.printf("TrigramIndex: %,d users; mixed p50=%dus p99=%dus; one-character prefix p50=%dus p99=%dus%n",
+                users, mixed[queries / 2] / 1000, mixed[(int) (queries * 0.99)] / 1000,
+                firstKeystroke[queries / 2] / 1000, firstKeystroke[(int) (queries * 0.99)] / 1000);
+    }
+
+    private static long[] measure(int queries, Supplier<String> nextQuery, TrigramIndex index) {
+        long[] nanos = new long[queries];
+        for (int i = -queries; i < queries; i++) {
+            String query = nextQuery.get();
+            long start = System.nanoTime();
+            index.search(query, 10);
+            if (i >= 0) {
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+}
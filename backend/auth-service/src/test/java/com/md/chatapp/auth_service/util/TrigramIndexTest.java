@@ -0,0 +1,121 @@
+package com.md.chatapp.auth_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static List<String> names(List<TrigramIndex.Match> matches) {
+        return matches.stream().map(TrigramIndex.Match::username).toList();
+    }
+
+    @Test
+    void search_ranksExactThenPrefixThenSubstring() {
+        TrigramIndex index = new TrigramIndex(16, 1000);
+        index.put(1, "malice");
+        index.put(2, "alice_w");
+        index.put(3, "Alice");
+        index.put(4, "bob");
+
+        assertEquals(List.of("Alice", "alice_w", "malice"), names(index.search("ALICE", 10)));
+        assertEquals(List.of("Alice", "alice_w"), names(index.search("al", 10)));
+        assertEquals(List.of("bob"), names(index.search("b", 10)));
+        assertEquals(List.of(), names(index.search("lic_", 10)));
+    }
+
+    @Test
+    void put_replacesPreviousUsernameAndRemoveHidesUser() {
+        TrigramIndex index = new TrigramIndex(16, 1000);
+        index.put(1, "carol");
+        index.put(1, "caroline");
+
+        assertEquals(List.of("caroline"), names(index.search("carol", 10)));
+        assertEquals(1, index.size());
+
+        index.remove(1);
+        assertTrue(index.search("carol", 10).isEmpty());
+    }
+
+    @Test
+    void search_verifiesTrigramCandidates() {
+        TrigramIndex index = new TrigramIndex(16, 1000);
+        // Contains every trigram of "abcd" ("abc", "bcd") but not the substring itself
+        index.put(1, "abcxbcd");
+        index.put(2, "xabcdx");
+
+        assertEquals(List.of("xabcdx"), names(index.search("abcd", 10)));
+    }
+
+    @Test
+    void search_limitsToTopK() {
+        TrigramIndex index = new TrigramIndex(16, 1000);
+        for (int i = 0; i < 100; i++) {
+            index.put(i, "user" + i);
+        }
+
+        assertEquals(List.of("user0", "user1", "user2"), names(index.search("user", 3)));
+    }
+
+    @Test
+    void search_findsExactAndPrefixMatchesBeyondTheCandidateCap() {
+        int cap = 50;
+        TrigramIndex index = new TrigramIndex(16, cap);
+        for (int i = 0; i < 4 * cap; i++) {
+            index.put(i, "xann" + i);
+        }
+        index.put(1_000, "annie");
+        index.put(1_001, "ann");
+
+        assertEquals(List.of("ann", "annie", "xann0"), names(index.search("ann", 3)));
+        assertEquals(List.of("ann", "annie"), names(index.search("an", 10)));
+    }
+
+    @Test
+    void search_shortPrefixReadsOnlyTheTopK() {
+        int users = 100_000;
+        TrigramIndex index = new TrigramIndex(users, 5_000);
+        Random random = new Random(42);
+        for (int i = 0; i < users; i++) {
+            index.put(i, "a" + randomName(random));
+        }
+        index.put(users, "ab");
+        index.remove(0);
+
+        int[] visited = new int[1];
+        List<TrigramIndex.Match> matches = index.search("a", 10, visited);
+        assertEquals(10, matches.size());
+        // One tombstone is skipped on the way, nothing else is looked at
+        assertTrue(visited[0] <= 11, "visited " + visited[0]);
+
+        visited[0] = 0;
+        assertEquals("ab", index.search("ab", 10, visited).get(0).username());
+        assertTrue(visited[0] <= 11, "visited " + visited[0]);
+    }
+
+    @Test
+    void search_shortPrefixRanksLikeLongerQueries() {
+        TrigramIndex index = new TrigramIndex(16, 1000);
+        index.put(1, "bobby");
+        index.put(2, "bo");
+        index.put(3, "bob");
+        index.put(4, "abo");
+        index.put(5, "bod");
+        index.put(3, "bobo");
+
+        assertEquals(List.of("bo", "bod", "bobo", "bobby"), names(index.search("bo", 10)));
+        assertEquals(List.of("bo", "bod"), names(index.search("B", 2)));
+    }
+
+    static String randomName(Random random) {
+        int length = 5 + random.nextInt(10);
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return name.toString();
+    }
+}
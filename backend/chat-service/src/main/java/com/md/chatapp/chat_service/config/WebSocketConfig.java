@@ -0,0 +1,42 @@
+package com.md.chatapp.chat_service.config;
+
+import com.md.chatapp.chat_service.security.JwtHandshakeInterceptor;
+import com.md.chatapp.chat_service.signaling.SignalingHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final SignalingHandler signalingHandler;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+
+    @Value("${app.signaling.allowed-origins:http://localhost:5173}")
+    private String[] allowedOrigins;
+
+    public WebSocketConfig(SignalingHandler signalingHandler, JwtHandshakeInterceptor jwtHandshakeInterceptor) {
+        this.signalingHandler = signalingHandler;
+        this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(signalingHandler, "/signaling")
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setAllowedOrigins(allowedOrigins);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        // SDP offers are a few KB; anything much larger is not signaling traffic
+        container.setMaxTextMessageBufferSize(64 * 1024);
+        return container;
+    }
+}
@@ -0,0 +1,66 @@
+package com.md.chatapp.chat_service.security;
+
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates the WebSocket upgrade. Browsers cannot set an Authorization
+ * header on a WebSocket, so the token is also accepted as the {@code token}
+ * query parameter (which is what useSignaling.ts sends).
+ */
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ATTRIBUTE = "signaling.user";
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtHandshakeInterceptor.class);
+
+    private final JwtVerifier jwtVerifier;
+
+    public JwtHandshakeInterceptor(JwtVerifier jwtVerifier) {
+        this.jwtVerifier = jwtVerifier;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = extractToken(request);
+        if (token == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        try {
+            attributes.put(USER_ATTRIBUTE, jwtVerifier.verify(token));
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Rejected signaling handshake: {}", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private static String extractToken(ServerHttpRequest request) {
+        String headerAuth = request.getHeaders().getFirst("Authorization");
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        return StringUtils.hasText(token) ? token : null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.md.chatapp.chat_service.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies access tokens issued by auth-service's {@code JwtUtils}, signed with
+ * the shared {@code app.jwt.secret}. Both token profiles are accepted: standard
+ * (username subject, user id in {@code uid}) and compact (user id subject,
+ * username in {@code u}).
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtParser parser;
+
+    public JwtVerifier(@Value("${app.jwt.secret}") String jwtSecret) {
+        // Built once; the parser is immutable and thread-safe
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+    }
+
+    /**
+     * @throws JwtException if the token is malformed, expired, badly signed or carries no user id
+     */
+    public AuthenticatedUser verify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        // Compact profile: numeric id as subject, username in "u"
+        String compactUsername = claims.get("u", String.class);
+        if (compactUsername != null) {
+            try {
+                return new AuthenticatedUser(Long.parseLong(claims.getSubject()), compactUsername);
+            } catch (NumberFormatException e) {
+                throw new JwtException("Compact token subject is not a user id");
+            }
+        }
+        Number userId = claims.get("uid", Number.class);
+        if (userId == null) {
+            throw new JwtException("Token has no uid claim");
+        }
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject());
+    }
+
+    public record AuthenticatedUser(long userId, String username) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.md.chatapp.chat_service.signaling;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One connected peer. Outbound traffic goes through a
+ * {@link ConcurrentWebSocketSessionDecorator}, which buffers up to a byte limit
+ * while another thread is flushing and rejects further sends once the peer
+ * exceeds the buffer or the send time limit; the peer is then closed, so a
+ * slow consumer is evicted rather than allowed to back up its senders.
+ */
+public class PeerSession {
+
+    private final long userId;
+    private final WebSocketSession session;
+    private final Set<String> rooms = ConcurrentHashMap.newKeySet();
+
+    public PeerSession(long userId, WebSocketSession session, int sendTimeLimitMs, int bufferSizeLimitBytes) {
+        this.userId = userId;
+        this.session = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimitBytes,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE);
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public String getSessionId() {
+        return session.getId();
+    }
+
+    public Set<String> getRooms() {
+        return rooms;
+    }
+
+    public boolean isOpen() {
+        return session.isOpen();
+    }
+
+    /**
+     * @return false if the peer could not keep up (or the socket failed) and has been closed
+     */
+    public boolean send(TextMessage message) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        try {
+            session.sendMessage(message);
+            return true;
+        } catch (SessionLimitExceededException e) {
+            // TERMINATE only marks the decorator as failed; the socket itself is closed here
+            close(e.getStatus());
+            return false;
+        } catch (IOException e) {
+            close(CloseStatus.SERVER_ERROR);
+            return false;
+        }
+    }
+
+    public void close(CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException ignored) {
+            // Already gone
+        }
+    }
+}
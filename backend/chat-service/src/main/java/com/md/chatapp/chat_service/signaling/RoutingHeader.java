@@ -0,0 +1,80 @@
+package com.md.chatapp.chat_service.signaling;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * The handful of top-level fields the relay needs to route a signaling message.
+ * Read with a streaming parser that skips over {@code payload} (SDP, ICE
+ * candidates) without building a tree, so forwarded messages are never
+ * deserialized or re-serialized. {@code end} is the char offset of the root
+ * object's closing brace, where the relay splices in the sender id.
+ */
+public record RoutingHeader(String type, Long targetUserId, String roomId, boolean hasFields, int end) {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    public static RoutingHeader parse(String message) throws IOException {
+        String type = null;
+        Long targetUserId = null;
+        String roomId = null;
+        boolean hasFields = false;
+        int end;
+
+        try (JsonParser parser = JSON.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Signaling message must be a JSON object");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                hasFields = true;
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "type" -> type = stringValue(parser, value);
+                    case "roomId" -> roomId = stringValue(parser, value);
+                    case "targetUserId" -> targetUserId = parseUserId(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (token != JsonToken.END_OBJECT) {
+                throw new IOException("Malformed signaling message");
+            }
+            end = Math.toIntExact(parser.currentTokenLocation().getCharOffset());
+            // Only whitespace may follow the object, otherwise the spliced message would not be JSON
+            if (parser.nextToken() != null) {
+                throw new IOException("Trailing content after signaling message");
+            }
+        }
+        return new RoutingHeader(type, targetUserId, roomId, hasFields, end);
+    }
+
+    private static String stringValue(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    // The frontend sends ids as strings ("42"); accept plain numbers too
+    private static Long parseUserId(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Long.parseLong(parser.getText());
+            } catch (NumberFormatException e) {
+                throw new IOException("targetUserId is not numeric");
+            }
+        }
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        throw new IOException("targetUserId is not numeric");
+    }
+}
@@ -0,0 +1,69 @@
+package com.md.chatapp.chat_service.signaling;
+
+import com.md.chatapp.chat_service.security.JwtHandshakeInterceptor;
+import com.md.chatapp.chat_service.security.JwtVerifier.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+
+@Component
+public class SignalingHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignalingHandler.class);
+    private static final String PEER_ATTRIBUTE = "signaling.peer";
+
+    private final SignalingRelay relay;
+    private final int sendTimeLimitMs;
+    private final int sendBufferLimitBytes;
+
+    public SignalingHandler(SignalingRelay relay,
+                            @Value("${app.signaling.send-time-limit-ms:5000}") int sendTimeLimitMs,
+                            @Value("${app.signaling.send-buffer-limit-bytes:262144}") int sendBufferLimitBytes) {
+        this.relay = relay;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferLimitBytes = sendBufferLimitBytes;
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) {
+        AuthenticatedUser user = (AuthenticatedUser) session.getAttributes().get(JwtHandshakeInterceptor.USER_ATTRIBUTE);
+        PeerSession peer = new PeerSession(user.userId(), session, sendTimeLimitMs, sendBufferLimitBytes);
+        session.getAttributes().put(PEER_ATTRIBUTE, peer);
+        relay.register(peer);
+    }
+
+    @Override
+    protected void handleTextMessage(@NonNull WebSocketSession session, @NonNull TextMessage message) {
+        PeerSession peer = (PeerSession) session.getAttributes().get(PEER_ATTRIBUTE);
+        String payload = message.getPayload();
+        RoutingHeader header;
+        try {
+            header = RoutingHeader.parse(payload);
+        } catch (IOException e) {
+            logger.warn("Dropping malformed signaling message from user {}: {}", peer.getUserId(), e.getMessage());
+            return;
+        }
+        relay.route(peer, payload, header);
+    }
+
+    @Override
+    public void handleTransportError(@NonNull WebSocketSession session, @NonNull Throwable exception) {
+        logger.debug("Signaling transport error on session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
+        PeerSession peer = (PeerSession) session.getAttributes().get(PEER_ATTRIBUTE);
+        if (peer != null) {
+            relay.unregister(peer);
+        }
+    }
+}
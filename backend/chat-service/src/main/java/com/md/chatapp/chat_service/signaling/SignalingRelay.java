@@ -0,0 +1,177 @@
+package com.md.chatapp.chat_service.signaling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes signaling messages between connected peers.
+ *
+ * Messages with a {@code targetUserId} go to that user; messages with only a
+ * {@code roomId} fan out to every other member of the room. {@code join} and
+ * {@code leave} are handled by the relay itself and announced to the room as
+ * {@code user-joined} / {@code user-left}. The sender id is stamped by the
+ * relay from the authenticated handshake, never trusted from the client.
+ */
+@Component
+public class SignalingRelay {
+
+    public static final String JOIN = "join";
+    public static final String LEAVE = "leave";
+
+    private static final Logger logger = LoggerFactory.getLogger(SignalingRelay.class);
+
+    private final Map<Long, PeerSession> peersByUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<PeerSession>> rooms = new ConcurrentHashMap<>();
+
+    private final Counter relayed;
+    private final Counter undeliverable;
+    private final Counter evicted;
+
+    public SignalingRelay(MeterRegistry meterRegistry) {
+        this.relayed = meterRegistry.counter("signaling.messages.relayed");
+        this.undeliverable = meterRegistry.counter("signaling.messages.undeliverable");
+        this.evicted = meterRegistry.counter("signaling.peers.evicted");
+        meterRegistry.gauge("signaling.connections", peersByUser, Map::size);
+        meterRegistry.gauge("signaling.rooms", rooms, Map::size);
+    }
+
+    public void register(PeerSession peer) {
+        PeerSession previous = peersByUser.put(peer.getUserId(), peer);
+        if (previous != null && previous != peer) {
+            // One signaling connection per user; a newer tab or reconnect wins
+            leaveAllRooms(previous);
+            previous.close(CloseStatus.POLICY_VIOLATION.withReason("Replaced by a newer connection"));
+        }
+    }
+
+    public void unregister(PeerSession peer) {
+        peersByUser.remove(peer.getUserId(), peer);
+        leaveAllRooms(peer);
+    }
+
+    public void route(PeerSession sender, String message, RoutingHeader header) {
+        if (JOIN.equals(header.type()) && header.roomId() != null) {
+            join(sender, header.roomId());
+            return;
+        }
+        if (LEAVE.equals(header.type()) && header.roomId() != null) {
+            leave(sender, header.roomId());
+            return;
+        }
+
+        TextMessage outbound = new TextMessage(withSender(message, header, sender.getUserId()));
+        if (header.targetUserId() != null) {
+            PeerSession target = peersByUser.get(header.targetUserId());
+            if (target == null || (header.roomId() != null && !target.getRooms().contains(header.roomId()))) {
+                undeliverable.increment();
+                return;
+            }
+            deliver(target, outbound);
+        } else if (header.roomId() != null) {
+            if (!sender.getRooms().contains(header.roomId())) {
+                undeliverable.increment();
+                return;
+            }
+            broadcast(header.roomId(), sender, outbound);
+        } else {
+            undeliverable.increment();
+        }
+    }
+
+    public int connectionCount() {
+        return peersByUser.size();
+    }
+
+    private void join(PeerSession peer, String roomId) {
+        if (!peer.getRooms().add(roomId)) {
+            return;
+        }
+        // Membership changes run inside the map's per-key lock, so a join can never land
+        // in a set that a concurrent leave is removing as empty
+        rooms.compute(roomId, (id, members) -> {
+            Set<PeerSession> joined = members != null ? members : ConcurrentHashMap.newKeySet();
+            joined.add(peer);
+            return joined;
+        });
+        broadcast(roomId, peer, new TextMessage(presenceMessage("user-joined", roomId, peer.getUserId())));
+    }
+
+    private void leave(PeerSession peer, String roomId) {
+        if (!peer.getRooms().remove(roomId)) {
+            return;
+        }
+        rooms.computeIfPresent(roomId, (id, members) -> {
+            members.remove(peer);
+            return members.isEmpty() ? null : members;
+        });
+        broadcast(roomId, peer, new TextMessage(presenceMessage("user-left", roomId, peer.getUserId())));
+    }
+
+    private void leaveAllRooms(PeerSession peer) {
+        for (String roomId : peer.getRooms()) {
+            leave(peer, roomId);
+        }
+    }
+
+    // The same TextMessage instance is shared by every recipient of a fan-out
+    private void broadcast(String roomId, PeerSession sender, TextMessage message) {
+        Set<PeerSession> members = rooms.get(roomId);
+        if (members == null) {
+            return;
+        }
+        for (PeerSession member : members) {
+            if (member != sender) {
+                deliver(member, message);
+            }
+        }
+    }
+
+    private void deliver(PeerSession target, TextMessage message) {
+        if (target.send(message)) {
+            relayed.increment();
+            return;
+        }
+        evicted.increment();
+        logger.warn("Evicted slow or broken signaling peer {} (session {})", target.getUserId(), target.getSessionId());
+        unregister(target);
+    }
+
+    /**
+     * Appends the authenticated sender id as the last member of the object.
+     * JSON.parse keeps the last duplicate key, so a client-supplied senderUserId
+     * is overridden without re-serializing the rest of the message.
+     */
+    static String withSender(String message, RoutingHeader header, long senderUserId) {
+        return message.substring(0, header.end())
+                + (header.hasFields() ? "," : "")
+                + "\"senderUserId\":\"" + senderUserId + "\"}";
+    }
+
+    private static String presenceMessage(String type, String roomId, long userId) {
+        return "{\"type\":\"" + type + "\",\"roomId\":" + quote(roomId) + ",\"senderUserId\":\"" + userId + "\"}";
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.md.chatapp.chat_service.security;
+
+import com.md.chatapp.chat_service.signaling.SignalingRelay;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.jwt.secret=" + JwtHandshakeInterceptorTest.SECRET)
+class JwtHandshakeInterceptorTest {
+
+    static final String SECRET = "aGFuZHNoYWtlLXRlc3Qtc2VjcmV0LXRoYXQtaXMtZGVmaW5pdGVseS1sb25nLWVub3VnaC1mb3ItaHM1MTItc2lnbmluZy0xMjM0NTY3ODkw";
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SignalingRelay relay;
+
+    private final StandardWebSocketClient client = new StandardWebSocketClient();
+
+    @Test
+    void relaysAsTheUserTheTokenAuthenticated() throws Exception {
+        BlockingQueue<String> inbox = new LinkedBlockingQueue<>();
+        WebSocketSession alice = connect("?token=" + token(KEY, 7, 60_000), new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                inbox.add(message.getPayload());
+            }
+        });
+        WebSocketSession bob = connect("?token=" + token(KEY, 8, 60_000));
+        waitForConnections(2);
+
+        // A client-supplied sender id is overridden by the one from the handshake
+        bob.sendMessage(new TextMessage("{\"type\":\"offer\",\"targetUserId\":\"7\",\"senderUserId\":\"1\",\"payload\":{}}"));
+        String relayed = inbox.poll(10, TimeUnit.SECONDS);
+        assertNotNull(relayed);
+        assertTrue(relayed.endsWith(",\"senderUserId\":\"8\"}"), relayed);
+
+        alice.close(CloseStatus.NORMAL);
+        bob.close(CloseStatus.NORMAL);
+        waitForConnections(0);
+    }
+
+    @Test
+    void refusesMissingForgedAndExpiredTokens() {
+        SecretKey otherKey = Keys.hmacShaKeyFor(new byte[64]);
+
+        assertThrows(ExecutionException.class, () -> connect(""));
+        assertThrows(ExecutionException.class, () -> connect("?token="));
+        assertThrows(ExecutionException.class, () -> connect("?token=" + token(otherKey, 7, 60_000)));
+        assertThrows(ExecutionException.class, () -> connect("?token=" + token(KEY, 7, -60_000)));
+        assertThrows(ExecutionException.class, () -> connect("?token=not.a.jwt"));
+        assertEquals(0, relay.connectionCount());
+    }
+
+    private WebSocketSession connect(String query) throws Exception {
+        return connect(query, new TextWebSocketHandler());
+    }
+
+    private WebSocketSession connect(String query, TextWebSocketHandler handler) throws Exception {
+        return client.execute(handler, "ws://localhost:" + port + "/signaling" + query).get(10, TimeUnit.SECONDS);
+    }
+
+    private void waitForConnections(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (relay.connectionCount() != expected) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + expected + " connections");
+            Thread.sleep(20);
+        }
+    }
+
+    private static String token(SecretKey key, long userId, long expiresInMs) {
+        return Jwts.builder()
+                .subject("user" + userId)
+                .claim("uid", userId)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .signWith(key, Jwts.SIG.HS512)
+                .compact();
+    }
+}
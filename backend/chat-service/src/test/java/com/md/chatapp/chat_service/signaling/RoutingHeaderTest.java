@@ -0,0 +1,43 @@
+package com.md.chatapp.chat_service.signaling;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingHeaderTest {
+
+    @Test
+    void parse_readsRoutingFieldsAndSkipsPayload() throws IOException {
+        RoutingHeader header = RoutingHeader.parse(
+                "{\"type\":\"offer\",\"payload\":{\"sdp\":\"v=0\\r\\n\",\"type\":\"ignored\"},\"targetUserId\":\"42\",\"roomId\":\"r1\"}");
+
+        assertEquals("offer", header.type());
+        assertEquals(42L, header.targetUserId());
+        assertEquals("r1", header.roomId());
+        assertTrue(header.hasFields());
+    }
+
+    @Test
+    void parse_rejectsNonObjectsAndBadIds() {
+        assertThrows(IOException.class, () -> RoutingHeader.parse("[1,2]"));
+        assertThrows(IOException.class, () -> RoutingHeader.parse("{\"targetUserId\":\"bob\"}"));
+        assertThrows(IOException.class, () -> RoutingHeader.parse("{\"type\":\"offer\""));
+        assertThrows(IOException.class, () -> RoutingHeader.parse("{\"type\":\"offer\",\"targetUserId\":5} junk}"));
+        assertThrows(IOException.class, () -> RoutingHeader.parse("{\"type\":\"offer\"} {}"));
+    }
+
+    @Test
+    void withSender_overridesClientSuppliedSender() throws IOException {
+        String message = "{\"type\":\"answer\",\"payload\":{\"sdp\":\"}\"},\"senderUserId\":\"999\"} ";
+        String stamped = SignalingRelay.withSender(message, RoutingHeader.parse(message), 7);
+
+        JsonNode node = new ObjectMapper().readTree(stamped);
+        assertEquals("7", node.get("senderUserId").asText());
+        assertEquals("answer", node.get("type").asText());
+        assertEquals("{\"senderUserId\":\"7\"}", SignalingRelay.withSender("{}", RoutingHeader.parse("{}"), 7));
+    }
+}
@@ -0,0 +1,127 @@
+package com.md.chatapp.chat_service.signaling;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Connects many authenticated peers to the relay, has each pair exchange
+ * messages, and reports relay latency and heap per connection. Skipped unless
+ * the peer count is given, e.g. {@code -Dsignaling.load.peers=5000}.
+ */
+@EnabledIfSystemProperty(named = "signaling.load.peers", matches = "\\d+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.jwt.secret=" + SignalingLoadBenchmark.SECRET)
+class SignalingLoadBenchmark {
+
+    static final String SECRET = "c2lnbmFsaW5nLWxvYWQtdGVzdC1zZWNyZXQtdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHM1MTItc2lnbmluZy0xMjM0NTY3ODkw";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SignalingRelay relay;
+
+    @Test
+    void relaysMessagesBetweenThousandsOfPeers() throws Exception {
+        int peers = Integer.getInteger("signaling.load.peers") & ~1;
+        int messagesPerPeer = 20;
+        int expected = peers * messagesPerPeer;
+
+        StandardWebSocketClient client = new StandardWebSocketClient();
+        long[] latencies = new long[expected];
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(expected);
+        TextWebSocketHandler receiver = new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                String payload = message.getPayload();
+                int start = payload.indexOf("\"sentAt\":") + 9;
+                long sentAt = Long.parseLong(payload, start, payload.indexOf('}', start), 10);
+                int index = received.getAndIncrement();
+                if (index < expected) {
+                    latencies[index] = System.nanoTime() - sentAt;
+                }
+                done.countDown();
+            }
+        };
+
+        long heapBefore = usedHeapAfterGc();
+        List<WebSocketSession> sessions = new ArrayList<>(peers);
+        for (int i = 0; i < peers; i++) {
+            String url = "ws://localhost:" + port + "/signaling?token=" + token(i + 1);
+            sessions.add(client.execute(receiver, url).get(10, TimeUnit.SECONDS));
+        }
+        waitFor(() -> relay.connectionCount() == peers);
+        long heapPerConnection = (usedHeapAfterGc() - heapBefore) / peers;
+
+        for (int round = 0; round < messagesPerPeer; round++) {
+            for (int i = 0; i < peers; i++) {
+                long target = (i ^ 1) + 1;
+                sessions.get(i).sendMessage(new TextMessage("{\"type\":\"ice-candidate\",\"targetUserId\":\"" + target
+                        + "\",\"payload\":{\"candidate\":\"candidate:1 1 UDP 2122252543 10.0.0.1 54321 typ host\",\"sentAt\":"
+                        + System.nanoTime() + "}}"));
+            }
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS), "received " + received.get() + " of " + expected);
+
+        Arrays.sort(latencies);
+        System.out.printf("Signaling relay: %d peers, %d messages, latency p50=%dus p99=%dus max=%dus, heap/connection (client+server)=%d bytes%n",
+                peers, expected, latencies[expected / 2] / 1000, latencies[(int) (expected * 0.99)] / 1000,
+                latencies[expected - 1] / 1000, heapPerConnection);
+
+        for (WebSocketSession session : sessions) {
+            session.close();
+        }
+        waitFor(() -> relay.connectionCount() == 0);
+    }
+
+    private static String token(long userId) {
+        return Jwts.builder()
+                .subject("user" + userId)
+                .claim("roles", List.of("ROLE_USER"))
+                .claim("uid", userId)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 600_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), Jwts.SIG.HS512)
+                .compact();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for relay state");
+            Thread.sleep(20);
+        }
+    }
+}
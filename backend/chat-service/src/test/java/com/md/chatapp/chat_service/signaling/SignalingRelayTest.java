@@ -0,0 +1,103 @@
+package com.md.chatapp.chat_service.signaling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SignalingRelayTest {
+
+    private static final int BUFFER_LIMIT_BYTES = 1024;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SignalingRelay relay = new SignalingRelay(meterRegistry);
+
+    @Test
+    void slowConsumerIsDisconnectedWhileOtherPeersKeepReceiving() throws Exception {
+        // The slow peer has stopped reading: the first write to its socket never returns
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        WebSocketSession slowSocket = session("slow", message -> {
+            writing.countDown();
+            stopped.await();
+        });
+        List<String> received = new CopyOnWriteArrayList<>();
+        WebSocketSession fastSocket = session("fast", message -> received.add((String) message.getPayload()));
+
+        PeerSession slow = peer(1, slowSocket);
+        PeerSession fast = peer(2, fastSocket);
+        PeerSession caller = peer(3, session("caller", message -> { }));
+        PeerSession other = peer(4, session("other", message -> { }));
+        for (PeerSession peer : List.of(slow, fast, caller, other)) {
+            relay.register(peer);
+        }
+
+        Thread blocked = new Thread(() -> send(caller, 1, 0));
+        blocked.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Further traffic for the slow peer queues behind the stuck write until the buffer overflows
+        for (int i = 0; i < 10 && slow.isOpen(); i++) {
+            send(other, 1, i);
+        }
+        verify(slowSocket).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertFalse(slow.isOpen());
+        assertEquals(3, relay.connectionCount());
+        assertEquals(1, meterRegistry.counter("signaling.peers.evicted").count());
+
+        send(other, 2, 42);
+        assertEquals(1, received.size());
+        assertTrue(received.get(0).contains("\"seq\":42"));
+        assertTrue(received.get(0).endsWith(",\"senderUserId\":\"4\"}"));
+
+        stopped.countDown();
+        blocked.join(5_000);
+    }
+
+    private void send(PeerSession from, long targetUserId, int seq) {
+        String message = "{\"type\":\"ice-candidate\",\"targetUserId\":\"" + targetUserId
+                + "\",\"payload\":{\"candidate\":\"" + "x".repeat(200) + "\",\"seq\":" + seq + "}}";
+        try {
+            relay.route(from, message, RoutingHeader.parse(message));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PeerSession peer(long userId, WebSocketSession socket) {
+        return new PeerSession(userId, socket, 60_000, BUFFER_LIMIT_BYTES);
+    }
+
+    private static WebSocketSession session(String id, Writer writer) throws IOException {
+        AtomicBoolean open = new AtomicBoolean(true);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenAnswer(invocation -> open.get());
+        doAnswer(invocation -> {
+            writer.write(invocation.getArgument(0));
+            return null;
+        }).when(session).sendMessage(any());
+        doAnswer(invocation -> {
+            open.set(false);
+            return null;
+        }).when(session).close(any());
+        return session;
+    }
+
+    private interface Writer {
+        void write(WebSocketMessage<?> message) throws Exception;
+    }
+}
@@ -0,0 +1,87 @@
+package com.md.chatapp.message_store;
+
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Locations of one conversation's live messages, ordered by message id.
+ *
+ * Only the packed location ({@code segmentId << 32 | offset}) is held in memory,
+ * 8 bytes per message; message ids are read back from the mapped segment when
+ * searching. Callers synchronize on the instance.
+ */
+final class ConversationIndex {
+
+    static final long NONE = -1L;
+
+    private long[] locations = new long[8];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long locationAt(int index) {
+        return locations[index];
+    }
+
+    void setLocation(int index, long location) {
+        locations[index] = location;
+    }
+
+    /** Index of the first entry whose message id is {@code >= messageId}, or {@code size} if none. */
+    int lowerBound(long messageId, LongUnaryOperator messageIdAt) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (messageIdAt.applyAsLong(locations[mid]) < messageId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Inserts in message id order, replacing an existing entry for the same id
+     * (a message copied by an interrupted compaction is seen twice on recovery).
+     *
+     * @return the replaced location, or {@link #NONE}
+     */
+    long put(long messageId, long location, LongUnaryOperator messageIdAt) {
+        // Appends arrive in id order, so the common case is a tail insert
+        if (size == 0 || messageIdAt.applyAsLong(locations[size - 1]) < messageId) {
+            append(location);
+            return NONE;
+        }
+        int index = lowerBound(messageId, messageIdAt);
+        if (index < size && messageIdAt.applyAsLong(locations[index]) == messageId) {
+            long previous = locations[index];
+            locations[index] = location;
+            return previous;
+        }
+        ensureCapacity();
+        System.arraycopy(locations, index, locations, index + 1, size - index);
+        locations[index] = location;
+        size++;
+        return NONE;
+    }
+
+    void append(long location) {
+        ensureCapacity();
+        locations[size++] = location;
+    }
+
+    void removeAt(int index) {
+        System.arraycopy(locations, index + 1, locations, index, size - index - 1);
+        size--;
+    }
+
+    private void ensureCapacity() {
+        if (size == locations.length) {
+            locations = Arrays.copyOf(locations, size + (size >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.md.chatapp.message_store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Log-structured chat message store.
+ *
+ * Messages are appended to fixed-size, memory-mapped segment files by a single
+ * writer and get a store-wide, monotonically increasing message id. Each
+ * conversation keeps an in-memory list of record locations in id order, which
+ * serves "latest N messages before cursor" pages with a binary search and N
+ * reads from the mapped segments.
+ *
+ * Deletes flip a flag in the record and drop it from the index. Sealed
+ * segments whose dead fraction reaches {@link MessageStoreConfig#compactionDeadRatio()}
+ * are rewritten in the background with only their live records. On open, the
+ * index is rebuilt by scanning every segment; a torn or corrupt record (CRC
+ * mismatch) ends the scan of its segment.
+ */
+public final class MessageStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageStore.class);
+
+    private final Path directory;
+    private final MessageStoreConfig config;
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final Map<Long, ConversationIndex> conversations = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSegmentId = new AtomicInteger();
+
+    private final Object writeLock = new Object();
+    private Segment active;
+    private long nextMessageId = 1;
+    private byte[] scratch = new byte[1024];
+    private final CRC32C writeCrc = new CRC32C();
+
+    private final Object compactionLock = new Object();
+    private final ScheduledExecutorService compactor;
+
+    private MessageStore(Path directory, MessageStoreConfig config) {
+        this.directory = directory;
+        this.config = config;
+        if (config.compactionInterval().isZero()) {
+            this.compactor = null;
+        } else {
+            this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "message-store-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static MessageStore open(Path directory, MessageStoreConfig config) throws IOException {
+        Files.createDirectories(directory);
+        MessageStore store = new MessageStore(directory, config);
+        store.recover();
+        if (store.compactor != null) {
+            long intervalMs = config.compactionInterval().toMillis();
+            store.compactor.scheduleWithFixedDelay(store::compactQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+        return store;
+    }
+
+    /**
+     * Appends a message and returns its id.
+     *
+     * @param senderUserId the auth-service user id of the author
+     */
+    public long append(long conversationId, long senderUserId, long timestamp, String body) {
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        int length = Segment.HEADER_SIZE + bodyBytes.length;
+        if (length > config.segmentSizeBytes()) {
+            throw new IllegalArgumentException("Message of " + bodyBytes.length + " bytes does not fit in a segment");
+        }
+        ConversationIndex conversation = conversations.computeIfAbsent(conversationId, id -> new ConversationIndex());
+
+        synchronized (writeLock) {
+            long messageId = nextMessageId++;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            ByteBuffer record = ByteBuffer.wrap(scratch, 0, length);
+            record.putInt(length)
+                    .putInt(0)
+                    .put((byte) 0)
+                    .putLong(messageId)
+                    .putLong(conversationId)
+                    .putLong(senderUserId)
+                    .putLong(timestamp)
+                    .put(bodyBytes);
+            writeCrc.reset();
+            writeCrc.update(scratch, Segment.OFFSET_FLAGS + 1, length - Segment.OFFSET_FLAGS - 1);
+            record.putInt(Segment.OFFSET_CRC, (int) writeCrc.getValue());
+
+            if (active.remaining() < length) {
+                roll();
+            }
+            int offset = active.writePosition;
+            active.write(offset, scratch, length);
+            active.writePosition = offset + length;
+            active.liveBytes.addAndGet(length);
+
+            // Still under the write lock, so ids reach each conversation in increasing order
+            synchronized (conversation) {
+                conversation.append(Segment.location(active.id, offset));
+            }
+            return messageId;
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} messages of a conversation with an id lower than
+     * {@code beforeMessageId}, newest first. Pass {@link Long#MAX_VALUE} for the latest page;
+     * pass the last id of a page to get the one before it.
+     */
+    public List<StoredMessage> latestBefore(long conversationId, long beforeMessageId, int limit) {
+        ConversationIndex conversation = conversations.get(conversationId);
+        if (conversation == null || limit <= 0) {
+            return List.of();
+        }
+        synchronized (conversation) {
+            int end = conversation.lowerBound(beforeMessageId, this::messageIdAt);
+            int start = Math.max(0, end - limit);
+            List<StoredMessage> page = new ArrayList<>(end - start);
+            for (int i = end - 1; i >= start; i--) {
+                long location = conversation.locationAt(i);
+                page.add(segment(location).readMessage(Segment.offset(location)));
+            }
+            return page;
+        }
+    }
+
+    /** Marks a message deleted; its space is reclaimed by compaction. */
+    public boolean delete(long conversationId, long messageId) {
+        ConversationIndex conversation = conversations.get(conversationId);
+        if (conversation == null) {
+            return false;
+        }
+        synchronized (conversation) {
+            int index = conversation.lowerBound(messageId, this::messageIdAt);
+            if (index == conversation.size() || messageIdAt(conversation.locationAt(index)) != messageId) {
+                return false;
+            }
+            long location = conversation.locationAt(index);
+            Segment segment = segment(location);
+            int offset = Segment.offset(location);
+            int length = segment.recordLength(offset);
+            segment.markDeleted(offset);
+            segment.liveBytes.addAndGet(-length);
+            segment.deadBytes.addAndGet(length);
+            conversation.removeAt(index);
+            return true;
+        }
+    }
+
+    /**
+     * Rewrites every sealed segment whose dead fraction has reached the configured
+     * ratio. Runs on the background compactor; callable directly as well.
+     *
+     * @return the number of segments compacted
+     */
+    public int compact() throws IOException {
+        synchronized (compactionLock) {
+            int activeId;
+            synchronized (writeLock) {
+                activeId = active.id;
+            }
+            List<Segment> candidates = segments.values().stream()
+                    .filter(segment -> segment.id != activeId)
+                    .filter(segment -> {
+                        long dead = segment.deadBytes.get();
+                        long total = dead + segment.liveBytes.get();
+                        return total > 0 && dead >= total * config.compactionDeadRatio();
+                    })
+                    .sorted(Comparator.comparingInt(segment -> segment.id))
+                    .toList();
+            // Merge candidates into as few segments as fit the configured segment size
+            List<Segment> group = new ArrayList<>();
+            long groupLive = 0;
+            for (Segment segment : candidates) {
+                long live = segment.liveBytes.get();
+                if (!group.isEmpty() && groupLive + live > config.segmentSizeBytes()) {
+                    compactGroup(group);
+                    group = new ArrayList<>();
+                    groupLive = 0;
+                }
+                group.add(segment);
+                groupLive += live;
+            }
+            if (!group.isEmpty()) {
+                compactGroup(group);
+            }
+            return candidates.size();
+        }
+    }
+
+    public void flush() {
+        synchronized (writeLock) {
+            active.force();
+        }
+    }
+
+    public int conversationCount() {
+        return conversations.size();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /** Copies the live records of {@code sources} into one new segment, then drops the sources. */
+    private void compactGroup(List<Segment> sources) throws IOException {
+        long live = sources.stream().mapToLong(segment -> segment.liveBytes.get()).sum();
+        Segment target = null;
+        if (live > 0) {
+            target = Segment.create(directory, nextSegmentId.getAndIncrement(), Math.toIntExact(live));
+            // Registered first so readers can resolve locations as soon as they are switched over
+            segments.put(target.id, target);
+        }
+
+        byte[] buffer = new byte[1024];
+        int position = 0;
+        long before = 0;
+        for (Segment source : sources) {
+            before += source.writePosition;
+            int offset = 0;
+            while (target != null && offset < source.writePosition) {
+                int length = source.recordLength(offset);
+                long sourceLocation = Segment.location(source.id, offset);
+                ConversationIndex conversation = conversations.get(source.conversationId(offset));
+                if (conversation != null) {
+                    synchronized (conversation) {
+                        long messageId = source.messageId(offset);
+                        int index = conversation.lowerBound(messageId, this::messageIdAt);
+                        // Skip records deleted meanwhile: the index only holds live ones
+                        if (index < conversation.size() && conversation.locationAt(index) == sourceLocation) {
+                            if (buffer.length < length) {
+                                buffer = new byte[Math.max(length, buffer.length * 2)];
+                            }
+                            source.read(offset, buffer, length);
+                            target.write(position, buffer, length);
+                            conversation.setLocation(index, Segment.location(target.id, position));
+                            target.liveBytes.addAndGet(length);
+                            position += length;
+                        }
+                    }
+                }
+                offset += length;
+            }
+        }
+        if (target != null) {
+            target.writePosition = position;
+            target.force();
+        }
+
+        for (Segment source : sources) {
+            segments.remove(source.id);
+            // Readers that resolved a location before the switch still hold the mapping, which outlives the file
+            source.deleteFile();
+        }
+        logger.info("Compacted {} segments into {}: {} of {} bytes kept",
+                sources.size(), target == null ? "nothing" : target.id, position, before);
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Message store compaction failed", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+
+        CRC32C crc = new CRC32C();
+        long maxMessageId = 0;
+        Segment last = null;
+        for (Path file : files) {
+            Segment segment = Segment.open(file);
+            segments.put(segment.id, segment);
+            int offset = 0;
+            while (offset + Segment.HEADER_SIZE <= segment.capacity) {
+                int length = segment.recordLength(offset);
+                if (length < Segment.HEADER_SIZE || offset + length > segment.capacity) {
+                    break;
+                }
+                crc.reset();
+                crc.update(segment.buffer.slice(offset + Segment.OFFSET_FLAGS + 1, length - Segment.OFFSET_FLAGS - 1));
+                if ((int) crc.getValue() != segment.buffer.getInt(offset + Segment.OFFSET_CRC)) {
+                    logger.warn("Corrupt record in segment {} at offset {}; ignoring the rest of the segment", segment.id, offset);
+                    break;
+                }
+                recoverRecord(segment, offset, length);
+                maxMessageId = Math.max(maxMessageId, segment.messageId(offset));
+                offset += length;
+            }
+            segment.writePosition = offset;
+            last = segment;
+        }
+
+        nextMessageId = maxMessageId + 1;
+        nextSegmentId.set(last == null ? 0 : last.id + 1);
+        if (last != null && last.remaining() >= Segment.HEADER_SIZE) {
+            active = last;
+        } else {
+            active = Segment.create(directory, nextSegmentId.getAndIncrement(), config.segmentSizeBytes());
+            segments.put(active.id, active);
+        }
+        logger.info("Opened message store at {}: {} segments, {} conversations, next message id {}",
+                directory, segments.size(), conversations.size(), nextMessageId);
+    }
+
+    private void recoverRecord(Segment segment, int offset, int length) {
+        long messageId = segment.messageId(offset);
+        long conversationId = segment.conversationId(offset);
+        ConversationIndex conversation = conversations.computeIfAbsent(conversationId, id -> new ConversationIndex());
+        long replaced;
+        if (segment.isDeleted(offset)) {
+            segment.deadBytes.addAndGet(length);
+            int index = conversation.lowerBound(messageId, this::messageIdAt);
+            if (index == conversation.size() || messageIdAt(conversation.locationAt(index)) != messageId) {
+                return;
+            }
+            // A later copy of a message recorded live in an older segment was deleted
+            replaced = conversation.locationAt(index);
+            conversation.removeAt(index);
+        } else {
+            segment.liveBytes.addAndGet(length);
+            replaced = conversation.put(messageId, Segment.location(segment.id, offset), this::messageIdAt);
+        }
+        if (replaced != ConversationIndex.NONE) {
+            Segment stale = segment(replaced);
+            int staleLength = stale.recordLength(Segment.offset(replaced));
+            stale.liveBytes.addAndGet(-staleLength);
+            stale.deadBytes.addAndGet(staleLength);
+        }
+    }
+
+    private void roll() {
+        active.force();
+        try {
+            Segment next = Segment.create(directory, nextSegmentId.getAndIncrement(), config.segmentSizeBytes());
+            segments.put(next.id, next);
+            active = next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a new message segment", e);
+        }
+    }
+
+    private Segment segment(long location) {
+        return segments.get(Segment.segmentId(location));
+    }
+
+    private long messageIdAt(long location) {
+        return segment(location).messageId(Segment.offset(location));
+    }
+}
@@ -0,0 +1,33 @@
+package com.md.chatapp.message_store;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for {@link MessageStore}. Defaults suit a single chat-service node.
+ */
+public record MessageStoreConfig(int segmentSizeBytes, double compactionDeadRatio, Duration compactionInterval) {
+
+    public static final MessageStoreConfig DEFAULT = new MessageStoreConfig(64 * 1024 * 1024, 0.3, Duration.ofMinutes(5));
+
+    public MessageStoreConfig {
+        if (segmentSizeBytes < 4096) {
+            throw new IllegalArgumentException("segmentSizeBytes must be at least 4096");
+        }
+        if (compactionDeadRatio <= 0 || compactionDeadRatio > 1) {
+            throw new IllegalArgumentException("compactionDeadRatio must be in (0, 1]");
+        }
+    }
+
+    public MessageStoreConfig withSegmentSizeBytes(int segmentSizeBytes) {
+        return new MessageStoreConfig(segmentSizeBytes, compactionDeadRatio, compactionInterval);
+    }
+
+    /** {@code Duration.ZERO} disables the background compactor; {@link MessageStore#compact()} still works. */
+    public MessageStoreConfig withCompactionInterval(Duration compactionInterval) {
+        return new MessageStoreConfig(segmentSizeBytes, compactionDeadRatio, compactionInterval);
+    }
+
+    public MessageStoreConfig withCompactionDeadRatio(double compactionDeadRatio) {
+        return new MessageStoreConfig(segmentSizeBytes, compactionDeadRatio, compactionInterval);
+    }
+}
@@ -0,0 +1,139 @@
+package com.md.chatapp.message_store;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One preallocated, memory-mapped segment file.
+ *
+ * Record layout (big-endian):
+ * <pre>
+ *   0  int   record length, header included (0 marks the end of the log)
+ *   4  int   CRC32C of bytes [9, length)
+ *   8  byte  flags (bit 0 = deleted), excluded from the CRC so it can be flipped in place
+ *   9  long  message id
+ *  17  long  conversation id
+ *  25  long  sender user id
+ *  33  long  timestamp (epoch millis)
+ *  41  ...   UTF-8 body
+ * </pre>
+ */
+final class Segment {
+
+    static final int HEADER_SIZE = 41;
+    static final int OFFSET_CRC = 4;
+    static final int OFFSET_FLAGS = 8;
+    static final int OFFSET_MESSAGE_ID = 9;
+    static final int OFFSET_CONVERSATION_ID = 17;
+    static final int OFFSET_SENDER = 25;
+    static final int OFFSET_TIMESTAMP = 33;
+    static final byte FLAG_DELETED = 1;
+
+    final int id;
+    final Path path;
+    final MappedByteBuffer buffer;
+    final int capacity;
+
+    // Only touched by the single writer (appends) or by recovery
+    int writePosition;
+
+    final AtomicLong liveBytes = new AtomicLong();
+    final AtomicLong deadBytes = new AtomicLong();
+
+    private Segment(int id, Path path, MappedByteBuffer buffer, int capacity) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    static Segment create(Path directory, int id, int capacity) throws IOException {
+        Path path = directory.resolve(fileName(id));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(capacity);
+            return new Segment(id, path, file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity);
+        }
+    }
+
+    static Segment open(Path path) throws IOException {
+        int id = Integer.parseInt(path.getFileName().toString().replace(".seg", ""));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            int capacity = Math.toIntExact(file.length());
+            return new Segment(id, path, file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity);
+        }
+    }
+
+    static String fileName(int id) {
+        return String.format("%010d.seg", id);
+    }
+
+    static long location(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    static int segmentId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    static int offset(long location) {
+        return (int) location;
+    }
+
+    int remaining() {
+        return capacity - writePosition;
+    }
+
+    int recordLength(int offset) {
+        return offset + 4 <= capacity ? buffer.getInt(offset) : 0;
+    }
+
+    long messageId(int offset) {
+        return buffer.getLong(offset + OFFSET_MESSAGE_ID);
+    }
+
+    long conversationId(int offset) {
+        return buffer.getLong(offset + OFFSET_CONVERSATION_ID);
+    }
+
+    boolean isDeleted(int offset) {
+        return (buffer.get(offset + OFFSET_FLAGS) & FLAG_DELETED) != 0;
+    }
+
+    void markDeleted(int offset) {
+        buffer.put(offset + OFFSET_FLAGS, (byte) (buffer.get(offset + OFFSET_FLAGS) | FLAG_DELETED));
+    }
+
+    void write(int offset, byte[] record, int length) {
+        buffer.put(offset, record, 0, length);
+    }
+
+    void read(int offset, byte[] destination, int length) {
+        buffer.get(offset, destination, 0, length);
+    }
+
+    StoredMessage readMessage(int offset) {
+        int length = buffer.getInt(offset);
+        byte[] body = new byte[length - HEADER_SIZE];
+        buffer.get(offset + HEADER_SIZE, body);
+        return new StoredMessage(
+                buffer.getLong(offset + OFFSET_MESSAGE_ID),
+                buffer.getLong(offset + OFFSET_CONVERSATION_ID),
+                buffer.getLong(offset + OFFSET_SENDER),
+                buffer.getLong(offset + OFFSET_TIMESTAMP),
+                new String(body, StandardCharsets.UTF_8));
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,8 @@
+package com.md.chatapp.message_store;
+
+/**
+ * A chat message as read back from the store. User ids are the numeric ids
+ * auth-service issues ({@code UserDetailsImpl.getId()}).
+ */
+public record StoredMessage(long messageId, long conversationId, long senderUserId, long timestamp, String body) {
+}
@@ -0,0 +1,68 @@
+package com.md.chatapp.message_store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Sustained append throughput and history-page latency. Skipped unless the
+ * message count is given, e.g. for the full-size run:
+ * <pre>
+ *   mvn test -Dtest=MessageStoreBenchmark -Dmessagestore.benchmark.messages=100000000
+ * </pre>
+ * 100M messages of ~80 byte bodies need about 12 GB of disk and ~1 GB of heap for the index.
+ */
+@EnabledIfSystemProperty(named = "messagestore.benchmark.messages", matches = "\\d+")
+class MessageStoreBenchmark {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendThroughputAndPageLatency() throws IOException {
+        long messages = Long.getLong("messagestore.benchmark.messages");
+        int conversations = Integer.getInteger("messagestore.benchmark.conversations", 100_000);
+        int pageSize = 50;
+        String body = "Hey, are we still on for the call later? I'll send the link in a minute or two.";
+
+        MessageStoreConfig config = MessageStoreConfig.DEFAULT.withCompactionInterval(Duration.ZERO);
+        try (MessageStore store = MessageStore.open(directory, config)) {
+            SplittableRandom random = new SplittableRandom(42);
+            long start = System.nanoTime();
+            long reportEvery = Math.max(1, messages / 10);
+            for (long i = 1; i <= messages; i++) {
+                store.append(random.nextInt(conversations), random.nextInt(1_000_000), i, body);
+                if (i % reportEvery == 0) {
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("appended %,d messages, %,.0f msg/s%n", i, i / seconds);
+                }
+            }
+            double appendSeconds = (System.nanoTime() - start) / 1e9;
+            store.flush();
+
+            int pages = Integer.getInteger("messagestore.benchmark.pages", 100_000);
+            int warmup = pages / 5;
+            long[] nanos = new long[pages];
+            for (int i = -warmup; i < pages; i++) {
+                long conversation = random.nextInt(conversations);
+                long cursor = random.nextInt(3) == 0 ? Long.MAX_VALUE : 1 + random.nextLong(messages);
+                long pageStart = System.nanoTime();
+                store.latestBefore(conversation, cursor, pageSize);
+                if (i >= 0) {
+                    nanos[i] = System.nanoTime() - pageStart;
+                }
+            }
+            Arrays.sort(nanos);
+            System.out.printf("MessageStore: %,d messages in %d segments, %,.0f appends/s sustained; "
+                            + "page of %d: p50=%dus p99=%dus p999=%dus%n",
+                    messages, store.segmentCount(), messages / appendSeconds, pageSize,
+                    nanos[pages / 2] / 1000, nanos[(int) (pages * 0.99)] / 1000, nanos[(int) (pages * 0.999)] / 1000);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.md.chatapp.message_store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageStoreTest {
+
+    // Small segments so tests roll over and compact quickly
+    private static final MessageStoreConfig CONFIG = MessageStoreConfig.DEFAULT
+            .withSegmentSizeBytes(4096)
+            .withCompactionInterval(Duration.ZERO);
+
+    @TempDir
+    Path directory;
+
+    private static List<String> bodies(List<StoredMessage> page) {
+        return page.stream().map(StoredMessage::body).toList();
+    }
+
+    @Test
+    void latestBefore_pagesNewestFirst() throws IOException {
+        try (MessageStore store = MessageStore.open(directory, CONFIG)) {
+            for (int i = 0; i < 100; i++) {
+                store.append(i % 2, 7, 1000 + i, "m" + i);
+            }
+
+            List<StoredMessage> first = store.latestBefore(0, Long.MAX_VALUE, 3);
+            assertEquals(List.of("m98", "m96", "m94"), bodies(first));
+            assertEquals(7, first.get(0).senderUserId());
+
+            List<StoredMessage> second = store.latestBefore(0, first.get(2).messageId(), 3);
+            assertEquals(List.of("m92", "m90", "m88"), bodies(second));
+            assertTrue(store.segmentCount() > 1);
+        }
+    }
+
+    @Test
+    void delete_hidesMessageAndCompactionReclaimsSegments() throws IOException {
+        try (MessageStore store = MessageStore.open(directory, CONFIG)) {
+            long[] ids = new long[200];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = store.append(1, 7, i, "message number " + i);
+            }
+            int segmentsBefore = store.segmentCount();
+            for (int i = 0; i < ids.length; i++) {
+                if (i % 4 != 0) {
+                    assertTrue(store.delete(1, ids[i]));
+                }
+            }
+            assertFalse(store.delete(1, ids[1]));
+
+            assertTrue(store.compact() > 0);
+            assertTrue(store.segmentCount() < segmentsBefore);
+            assertEquals(List.of("message number 196", "message number 192"),
+                    bodies(store.latestBefore(1, Long.MAX_VALUE, 2)));
+            assertEquals(50, store.latestBefore(1, Long.MAX_VALUE, 1000).size());
+        }
+    }
+
+    @Test
+    void open_rebuildsIndexFromSegments() throws IOException {
+        long lastId;
+        try (MessageStore store = MessageStore.open(directory, CONFIG)) {
+            for (int i = 0; i < 150; i++) {
+                store.append(i % 3, 7, i, "m" + i);
+            }
+            store.delete(0, store.latestBefore(0, Long.MAX_VALUE, 1).get(0).messageId());
+            store.compact();
+            lastId = store.append(0, 7, 999, "last");
+        }
+
+        try (MessageStore store = MessageStore.open(directory, CONFIG)) {
+            assertEquals(List.of("last", "m144", "m141"), bodies(store.latestBefore(0, Long.MAX_VALUE, 3)));
+            assertEquals(3, store.conversationCount());
+            assertTrue(store.append(0, 7, 1000, "after reopen") > lastId);
+        }
+    }
+
+    @Test
+    void open_ignoresTornTail() throws IOException {
+        try (MessageStore store = MessageStore.open(directory, CONFIG)) {
+            store.append(1, 7, 1, "kept");
+            store.append(1, 7, 2, "torn");
+        }
+        // Corrupt one body byte of the second record (header 41 bytes + "kept")
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("0000000000.seg").toFile(), "rw")) {
+            file.seek(41 + 4 + 41 + 1);
+            file.write('X');
+        }
+
+        try (MessageStore store = MessageStore.open(directory, CONFIG)) {
+            assertEquals(List.of("kept"), bodies(store.latestBefore(1, Long.MAX_VALUE, 10)));
+        }
+    }
+}